@@ -0,0 +1,3 @@
+#!/bin/sh
+# Primary init script: let the compose replica stream WAL (pg_basebackup -X stream, then standby)
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,211 @@
+package com.chumani.production.panverification;
+
+import com.chumani.production.panverification.stub.ProteanStubServer;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread Mode Load Test
+ * Closed-loop verifications against the application in platform-thread mode and in the
+ * virtual-threads profile, at each concurrency level. Every run starts the application as a
+ * child JVM (1 GB heap) with the cache and hedging off, the upstream limits pinned at 4000 and
+ * the circuit breaker held closed, against an in-process ProteanStubServer answering every call after 500 ms. Requests carry a
+ * 10-minute X-Request-Timeout so queueing shows up as latency rather than DEADLINE_EXCEEDED.
+ *
+ * Prints verifications/s, p50, the child's peak RSS and its OS thread count (read from /proc,
+ * so Linux only). Not a JMH benchmark; run it with
+ * mvn -Pjmh test-compile exec:exec@load-test [-Dload.modes=platform,virtual]
+ * [-Dload.concurrency=1000,5000,10000] [-Dload.duration=PT60S]
+ */
+public class ThreadModeLoadTest {
+
+    private static final long STUB_DELAY_MS = 500;
+    private static final int UPSTREAM_LIMIT = 4000;
+    // More calls than a run makes, so the circuit breaker never evaluates
+    private static final int BREAKER_WINDOW = 100_000;
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .executor(Executors.newVirtualThreadPerTaskExecutor())
+        .build();
+
+    public static void main(String[] args) throws Exception {
+        String[] modes = (args.length > 0 ? args[0] : "platform,virtual").split(",");
+        String[] levels = (args.length > 1 ? args[1] : "1000,5000,10000").split(",");
+        Duration duration = Duration.parse(args.length > 2 ? args[2] : "PT60S");
+
+        // The JDK HttpServer keeps 200 idle connections by default and closes the rest, which the
+        // application's pool would then reuse and see fail
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(UPSTREAM_LIMIT));
+        ProteanStubServer stub = new ProteanStubServer(0, STUB_DELAY_MS, 1.0);
+        stub.start();
+        try {
+            ThreadModeLoadTest loadTest = new ThreadModeLoadTest();
+            System.out.println("| Mode | Concurrency | Verifications/s | Failed | p50 | Peak RSS | OS threads |");
+            System.out.println("|---|---|---|---|---|---|---|");
+            for (String mode : modes) {
+                for (String level : levels) {
+                    System.out.println(loadTest.run(mode, Integer.parseInt(level), duration, stub.getPort()));
+                }
+            }
+        } finally {
+            stub.stop();
+        }
+    }
+
+    private String run(String mode, int concurrency, Duration duration, int stubPort) throws Exception {
+        int port = freePort();
+        Process application = startApplication(mode, port, stubPort);
+        ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            awaitHealthy(application, port);
+
+            URI verify = URI.create("http://localhost:" + port + "/api/pan/verify");
+            Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+            LongAdder failed = new LongAdder();
+            long startNanos = System.nanoTime();
+            long endNanos = startNanos + duration.toNanos();
+            for (int i = 0; i < concurrency; i++) {
+                String body = "{\"pan\":\"" + String.format("ABCPE%04dF", i % 10_000) + "\",\"name\":\"Load Test\"}";
+                callers.execute(() -> callUntil(verify, body, endNanos, latencies, failed));
+            }
+
+            long peakThreads = 0;
+            while (System.nanoTime() < endNanos) {
+                peakThreads = Math.max(peakThreads, procStatus(application, "Threads:"));
+                Thread.sleep(500);
+            }
+            long peakRssKb = procStatus(application, "VmHWM:");
+
+            List<Long> sorted = new ArrayList<>(latencies);
+            sorted.sort(null);
+            double seconds = duration.toNanos() / 1e9;
+            String p50 = sorted.isEmpty() ? "-"
+                : String.format("%.1f s", sorted.get(sorted.size() / 2) / 1e9);
+            return String.format("| %s | %d | %.0f | %d | %s | %d MB | %d |", mode, concurrency,
+                sorted.size() / seconds, failed.sum(), p50, peakRssKb / 1024, peakThreads);
+        } finally {
+            callers.shutdownNow();
+            application.destroy();
+            if (!application.waitFor(30, TimeUnit.SECONDS)) {
+                application.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    // One closed-loop client: next request as soon as the last one is answered
+    private void callUntil(URI verify, String body, long endNanos, Queue<Long> latencies, LongAdder failed) {
+        HttpRequest request = HttpRequest.newBuilder(verify)
+            .header("Content-Type", "application/json")
+            .header("X-Request-Timeout", "PT10M")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        while (System.nanoTime() < endNanos) {
+            long sentNanos = System.nanoTime();
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                long answeredNanos = System.nanoTime();
+                if (answeredNanos > endNanos) {
+                    return;
+                }
+                if (response.statusCode() == 200 && !response.body().contains("\"errorCode\":\"")) {
+                    latencies.add(answeredNanos - sentNanos);
+                } else {
+                    failed.increment();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                if (System.nanoTime() < endNanos) {
+                    failed.increment();
+                }
+            }
+        }
+    }
+
+    private static Process startApplication(String mode, int port, int stubPort) throws IOException {
+        Path log = Files.createDirectories(Path.of("target", "load-test")).resolve(mode + "-" + port + ".log");
+        Path audit = Files.createTempDirectory("load-test-audit");
+        List<String> command = new ArrayList<>(List.of(
+            ProcessHandle.current().info().command().orElse("java"),
+            "-Xmx1g",
+            "-cp", System.getProperty("java.class.path"),
+            ProductionPanVerificationApplication.class.getName(),
+            "--server.port=" + port,
+            "--protean.api.url=http://localhost:" + stubPort + ProteanStubServer.VERIFY_PATH,
+            "--pan.verification.cache.enabled=false",
+            "--pan.verification.audit.journal.directory=" + audit,
+            "--protean.hedging.enabled=false",
+            "--protean.api.max-connections=" + UPSTREAM_LIMIT,
+            "--protean.api.max-connections-per-route=" + UPSTREAM_LIMIT,
+            "--protean.bulkhead.max-concurrent-calls=" + UPSTREAM_LIMIT,
+            "--protean.limiter.initial-limit=" + UPSTREAM_LIMIT,
+            "--protean.limiter.max-limit=" + UPSTREAM_LIMIT,
+            "--protean.limiter.max-queue=" + UPSTREAM_LIMIT,
+            // Pinned, so the breaker and the adaptive limit don't shed load differently per mode
+            "--protean.limiter.min-limit=" + UPSTREAM_LIMIT,
+            "--protean.limiter.max-wait-ms=" + Duration.ofMinutes(10).toMillis(),
+            "--protean.circuit-breaker.sliding-window-size=" + BREAKER_WINDOW,
+            "--protean.circuit-breaker.minimum-number-of-calls=" + BREAKER_WINDOW));
+        if ("virtual".equals(mode)) {
+            command.add("--spring.profiles.active=virtual-threads");
+        } else if (!"platform".equals(mode)) {
+            throw new IllegalArgumentException("Unknown mode " + mode + ", expected platform or virtual");
+        }
+        return new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(log.toFile())
+            .start();
+    }
+
+    private void awaitHealthy(Process application, int port) throws Exception {
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health")).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!application.isAlive()) {
+                throw new IllegalStateException("Application exited with " + application.exitValue());
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("Application not healthy within " + STARTUP_TIMEOUT);
+    }
+
+    // A numeric field of /proc/<pid>/status (kB for memory fields)
+    private static long procStatus(Process process, String field) throws IOException {
+        for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(process.pid()), "status"))) {
+            if (line.startsWith(field)) {
+                return Long.parseLong(line.substring(field.length()).trim().split("\\s+")[0]);
+            }
+        }
+        return 0;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
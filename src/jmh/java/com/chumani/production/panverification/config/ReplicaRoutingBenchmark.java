@@ -0,0 +1,131 @@
+package com.chumani.production.panverification.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Replica Routing Benchmark
+ * Primary insert throughput while reporting queries run alongside, with the reads in read-only
+ * transactions routed to the primary itself or to a separate replica database. Both are H2
+ * in-memory databases seeded with the same rows, each behind a pool of four connections.
+ * Compare mixed:write across readTarget, and against writeAlone for the unloaded rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReplicaRoutingBenchmark {
+
+    private static final int SEEDED_ROWS = 50_000;
+    private static final int POOL_SIZE = 4;
+
+    private static final String SCHEMA = "CREATE TABLE pan_verification_records (" +
+        "id BIGINT AUTO_INCREMENT PRIMARY KEY, reference_number VARCHAR(24) NOT NULL UNIQUE, " +
+        "pan_key BIGINT NOT NULL, status VARCHAR(20) NOT NULL, created_at TIMESTAMP NOT NULL)";
+    private static final String INSERT = "INSERT INTO pan_verification_records " +
+        "(reference_number, pan_key, status, created_at) VALUES (?, ?, ?, ?)";
+    private static final String REPORT = "SELECT status, COUNT(*) FROM pan_verification_records " +
+        "WHERE created_at >= ? GROUP BY status";
+    private static final String[] STATUSES = {"ACTIVE", "INACTIVE", "DEACTIVATED", "CANCELLED"};
+
+    @Param({"primary", "replica"})
+    private String readTarget;
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        primary = seededPool("primary");
+        replica = seededPool("replica");
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(
+            new ReplicaRoutingDataSource(primary, "replica".equals(readTarget) ? replica : primary));
+        jdbcTemplate = new JdbcTemplate(routing);
+        readOnly = new TransactionTemplate(new DataSourceTransactionManager(routing));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        primary.close();
+        replica.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public int write() {
+        return insert();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(4)
+    public List<Map<String, Object>> read() {
+        Timestamp since = Timestamp.valueOf(LocalDateTime.now().minusDays(1));
+        return readOnly.execute(status -> jdbcTemplate.queryForList(REPORT, since));
+    }
+
+    @Benchmark
+    @Threads(2)
+    public int writeAlone() {
+        return insert();
+    }
+
+    private int insert() {
+        long n = sequence.incrementAndGet();
+        return jdbcTemplate.update(INSERT, "BENCH" + n, n, STATUSES[(int) (n & 3)],
+            Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private static HikariDataSource seededPool(String name) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setPoolName("bench-" + name);
+        config.setMaximumPoolSize(POOL_SIZE);
+        HikariDataSource dataSource = new HikariDataSource(config);
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute(SCHEMA);
+        LocalDateTime now = LocalDateTime.now();
+        jdbc.batchUpdate(INSERT, IntStream.range(0, SEEDED_ROWS)
+            .mapToObj(i -> new Object[] {"SEED" + i, (long) i, STATUSES[i & 3],
+                Timestamp.valueOf(now.minusSeconds(i % 172_800))})
+            .toList());
+        return dataSource;
+    }
+}
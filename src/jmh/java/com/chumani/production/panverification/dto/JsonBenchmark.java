@@ -0,0 +1,70 @@
+package com.chumani.production.panverification.dto;
+
+import com.chumani.production.panverification.enums.PANStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON Benchmark
+ * Reading the request body and writing the response, with an ObjectMapper configured
+ * the way Spring Boot configures the application's
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    private ObjectMapper objectMapper;
+    private byte[] requestJson;
+    private byte[] responseJson;
+    private PANVerificationResponse response;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        requestJson = objectMapper.writeValueAsBytes(new PANVerificationRequest("ABCPE1234F", "Ravi Kumar"));
+
+        response = new PANVerificationResponse();
+        response.setReferenceNumber("PAN1735689600000A1B2");
+        response.setTransactionId("TXN0123456789AB");
+        response.setTraceId("TRACE-20250101-000000-A1B2C3D4");
+        response.setStatus(PANStatus.ACTIVE);
+        response.setAadhaarLinked(true);
+        response.setMessage("PAN verification completed successfully");
+        response.setTimestamp(LocalDateTime.now());
+        response.setRetryCount(0);
+        response.setServedFromCache(false);
+        responseJson = objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public PANVerificationRequest readRequest() throws IOException {
+        return objectMapper.readValue(requestJson, PANVerificationRequest.class);
+    }
+
+    @Benchmark
+    public byte[] writeResponse() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public PANVerificationResponse readResponse() throws IOException {
+        return objectMapper.readValue(responseJson, PANVerificationResponse.class);
+    }
+}
@@ -0,0 +1,156 @@
+package com.chumani.production.panverification.service;
+
+import com.chumani.production.panverification.ProductionPanVerificationApplication;
+import com.chumani.production.panverification.dto.PANVerificationRequest;
+import com.chumani.production.panverification.dto.PANVerificationResponse;
+import com.chumani.production.panverification.stub.ProteanStubServer;
+import com.chumani.production.panverification.util.Deadline;
+import com.chumani.production.panverification.util.RequestTrace;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Pool Occupancy Load Test
+ * Closed-loop synchronous verifications at each concurrency level, sampling the Hikari pool
+ * every 5 ms. Two modes, against an in-process ProteanStubServer answering after 500 ms:
+ * held wraps each verifyPAN in one transaction, as the class-level @Transactional did, so a
+ * connection is pinned across the Protean call; split calls verifyPAN as it is, with short
+ * persistence phases only. The application runs in-process without a web server, cache and
+ * hedging off and the upstream limits out of the way.
+ *
+ * Prints verifications/s, failures (connection timeouts in held mode), p50, mean and peak
+ * active connections and peak threads waiting for one. Not a JMH benchmark; run it with
+ * mvn -Pjmh test-compile exec:exec@pool-load-test [-Dpool.modes=held,split]
+ * [-Dpool.concurrency=5,10,20,40,80] [-Dpool.duration=PT20S]
+ */
+public class PoolOccupancyLoadTest {
+
+    private static final long STUB_DELAY_MS = 500;
+    private static final int UPSTREAM_LIMIT = 1000;
+    private static final long SAMPLE_INTERVAL_MS = 5;
+
+    public static void main(String[] args) throws Exception {
+        String[] modes = (args.length > 0 ? args[0] : "held,split").split(",");
+        String[] levels = (args.length > 1 ? args[1] : "5,10,20,40,80").split(",");
+        Duration duration = Duration.parse(args.length > 2 ? args[2] : "PT20S");
+
+        ProteanStubServer stub = new ProteanStubServer(0, STUB_DELAY_MS, 1.0);
+        stub.start();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ProductionPanVerificationApplication.class)
+            .run("--spring.main.web-application-type=none",
+                 "--protean.api.url=http://localhost:" + stub.getPort() + ProteanStubServer.VERIFY_PATH,
+                 "--pan.verification.cache.enabled=false",
+                 "--pan.verification.audit.journal.directory=" + Files.createTempDirectory("pool-load-test-audit"),
+                 "--protean.hedging.enabled=false",
+                 "--protean.api.max-connections=" + UPSTREAM_LIMIT,
+                 "--protean.api.max-connections-per-route=" + UPSTREAM_LIMIT,
+                 "--protean.bulkhead.max-concurrent-calls=" + UPSTREAM_LIMIT,
+                 "--protean.limiter.initial-limit=" + UPSTREAM_LIMIT,
+                 "--protean.limiter.min-limit=" + UPSTREAM_LIMIT,
+                 "--protean.limiter.max-limit=" + UPSTREAM_LIMIT);
+        try {
+            PANVerificationService service = context.getBean(PANVerificationService.class);
+            HikariDataSource pool = context.getBean(DataSource.class).unwrap(HikariDataSource.class);
+            TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+            System.out.println("Pool size " + pool.getMaximumPoolSize() + ", connection timeout "
+                + pool.getConnectionTimeout() + " ms");
+            System.out.println("| Mode | Concurrency | Verifications/s | Failed | p50 | Mean active | Peak active | Peak waiting |");
+            System.out.println("|---|---|---|---|---|---|---|---|");
+            for (String mode : modes) {
+                for (String level : levels) {
+                    System.out.println(run(mode, Integer.parseInt(level), duration, service, transaction,
+                        pool.getHikariPoolMXBean()));
+                }
+            }
+        } finally {
+            context.close();
+            stub.stop();
+        }
+    }
+
+    private static String run(String mode, int concurrency, Duration duration, PANVerificationService service,
+                              TransactionTemplate transaction, HikariPoolMXBean pool) throws Exception {
+        if (!"held".equals(mode) && !"split".equals(mode)) {
+            throw new IllegalArgumentException("Unknown mode " + mode + ", expected held or split");
+        }
+        Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+        LongAdder failed = new LongAdder();
+        ExecutorService callers = Executors.newFixedThreadPool(concurrency);
+        long endNanos = System.nanoTime() + duration.toNanos();
+        try {
+            for (int i = 0; i < concurrency; i++) {
+                PANVerificationRequest request = new PANVerificationRequest();
+                request.setPan(String.format("ABCPO%04dF", i));
+                request.setName("Load Test");
+                Supplier<PANVerificationResponse> verify = () ->
+                    service.verifyPAN(request, RequestTrace.untraced(), Deadline.none());
+                callers.execute(() -> callUntil("held".equals(mode) ? () -> transaction.execute(status -> verify.get())
+                    : verify, endNanos, latencies, failed));
+            }
+
+            long samples = 0;
+            long activeSum = 0;
+            int peakActive = 0;
+            int peakWaiting = 0;
+            while (System.nanoTime() < endNanos) {
+                int active = pool.getActiveConnections();
+                activeSum += active;
+                samples++;
+                peakActive = Math.max(peakActive, active);
+                peakWaiting = Math.max(peakWaiting, pool.getThreadsAwaitingConnection());
+                Thread.sleep(SAMPLE_INTERVAL_MS);
+            }
+
+            List<Long> sorted = new ArrayList<>(latencies);
+            sorted.sort(null);
+            String p50 = sorted.isEmpty() ? "-" : String.format("%d ms", sorted.get(sorted.size() / 2) / 1_000_000);
+            return String.format("| %s | %d | %.1f | %d | %s | %.1f | %d | %d |", mode, concurrency,
+                sorted.size() / (duration.toNanos() / 1e9), failed.sum(), p50,
+                samples == 0 ? 0.0 : (double) activeSum / samples, peakActive, peakWaiting);
+        } finally {
+            callers.shutdown();
+            // Let callers still in the upstream call finish, so the next level starts with an idle pool
+            callers.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    // One closed-loop client: next verification as soon as the last one returns
+    private static void callUntil(Supplier<PANVerificationResponse> verify, long endNanos,
+                                  Queue<Long> latencies, LongAdder failed) {
+        while (System.nanoTime() < endNanos) {
+            long startNanos = System.nanoTime();
+            try {
+                PANVerificationResponse response = verify.get();
+                long answeredNanos = System.nanoTime();
+                if (answeredNanos > endNanos) {
+                    return;
+                }
+                if (response.getErrorCode() == null) {
+                    latencies.add(answeredNanos - startNanos);
+                } else {
+                    failed.increment();
+                }
+            } catch (RuntimeException e) {
+                // Connection timeouts surface here
+                failed.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.chumani.production.panverification.service;
+
+import com.chumani.production.panverification.ProductionPanVerificationApplication;
+import com.chumani.production.panverification.entity.PANVerificationRecord;
+import com.chumani.production.panverification.enums.PANStatus;
+import com.chumani.production.panverification.repository.PANVerificationRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Record Write Benchmark
+ * Verification records persisted by concurrent request threads against the application's own
+ * JPA stack on H2: perRequestSave is the flow before the write-behind writer (insert the pending
+ * record, then update it with the result, each save its own transaction); writeBehind hands the
+ * completed record to VerificationRecordWriter, which inserts it in JDBC batches. The writer's
+ * queue is kept small and drained after each iteration, so queued records barely inflate its
+ * score and writeBehind measures the rate the writer sustains, not the rate it accepts.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecordWriteBenchmark {
+
+    private static final int THREADS = 8;
+    private static final int QUEUE_CAPACITY = 500;
+
+    private ConfigurableApplicationContext context;
+    private PANVerificationRepository repository;
+    private VerificationRecordWriter recordWriter;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(ProductionPanVerificationApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=jdbc:h2:mem:record-write-bench",
+                "spring.datasource.hikari.maximum-pool-size=" + THREADS,
+                "spring.datasource.hikari.register-mbeans=false",
+                "pan.verification.persistence.write-behind.queue-capacity=" + QUEUE_CAPACITY,
+                "pan.verification.async.recovery-interval-ms=3600000",
+                "pan.verification.rollup.enabled=false",
+                "pan.verification.idempotency.sweep-interval-ms=3600000",
+                "pan.verification.audit.journal.directory=" + Files.createTempDirectory("record-write-bench"),
+                "pan.verification.audit.journal.segment-size=1MB",
+                "logging.level.root=WARN")
+            .run();
+        repository = context.getBean(PANVerificationRepository.class);
+        recordWriter = context.getBean(VerificationRecordWriter.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void awaitFlushed() throws InterruptedException {
+        while (recordWriter.getQueueDepth() > 0) {
+            Thread.sleep(1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(THREADS)
+    public PANVerificationRecord perRequestSave() {
+        PANVerificationRecord record = repository.save(newRecord());
+        complete(record);
+        return repository.save(record);
+    }
+
+    @Benchmark
+    @Threads(THREADS)
+    public PANVerificationRecord writeBehind() {
+        PANVerificationRecord record = newRecord();
+        complete(record);
+        recordWriter.write(record);
+        return record;
+    }
+
+    private PANVerificationRecord newRecord() {
+        long n = sequence.incrementAndGet();
+        PANVerificationRecord record = new PANVerificationRecord(String.format("ABCPE%04dF", n % 10_000),
+            "Bench User", PANStatus.ACTIVE, false, "BENCH-REF-" + n, "BENCH-TXN-" + n);
+        record.setTraceId("BENCH-TRACE-" + n);
+        return record;
+    }
+
+    private static void complete(PANVerificationRecord record) {
+        record.setStatus(PANStatus.ACTIVE);
+        record.setAadhaarLinked(true);
+        record.setResponseTimestamp(LocalDateTime.now());
+    }
+}
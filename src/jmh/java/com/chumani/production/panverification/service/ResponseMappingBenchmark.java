@@ -0,0 +1,56 @@
+package com.chumani.production.panverification.service;
+
+import com.chumani.production.panverification.dto.PANVerificationResponse;
+import com.chumani.production.panverification.entity.PANVerificationRecord;
+import com.chumani.production.panverification.enums.PANStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response Mapping Benchmark
+ * Mapping a stored verification record to the API response
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseMappingBenchmark {
+
+    private PANVerificationRecord completed;
+    private PANVerificationRecord pending;
+
+    @Setup
+    public void setUp() {
+        completed = new PANVerificationRecord("ABCPE1234F", "Ravi Kumar", PANStatus.ACTIVE, true,
+            "PAN01JH2Q4R5S6T7", "TXN01JH2Q4R5S6T8");
+        completed.setId(1L);
+        completed.setTraceId("TRACE-01JH2Q4R5S6T9");
+        completed.setResponseTimestamp(LocalDateTime.now());
+
+        pending = new PANVerificationRecord("ABCPE1234F", "Ravi Kumar", PANStatus.PENDING, null,
+            "PAN01JH2Q4R5S6TA", "TXN01JH2Q4R5S6TB");
+        pending.setId(2L);
+    }
+
+    @Benchmark
+    public PANVerificationResponse convertCompleted() {
+        return PANVerificationService.convertToResponse(completed);
+    }
+
+    @Benchmark
+    public PANVerificationResponse convertPending() {
+        return PANVerificationService.convertToResponse(pending);
+    }
+}
@@ -0,0 +1,153 @@
+package com.chumani.production.panverification.service;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rollup Report Benchmark
+ * Reporting totals over a window of days, answered by a grouped scan of the raw verification
+ * records or from the hourly and daily rollup tables, split the way
+ * VerificationRollupService.getSummary splits it (hourly rows for the partial days at either
+ * end, daily rows in between). Records are spread evenly over SPAN_DAYS; the H2 database is
+ * file-backed so the 10M-row table need not fit in the heap, and seeding it takes a few minutes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RollupReportBenchmark {
+
+    private static final int SPAN_DAYS = 90;
+
+    private static final String SCHEMA = "CREATE TABLE pan_verification_records (" +
+        "id BIGINT PRIMARY KEY, status VARCHAR(20) NOT NULL, error_code VARCHAR(255), aadhaar_linked BOOLEAN, " +
+        "request_timestamp TIMESTAMP NOT NULL, response_timestamp TIMESTAMP)";
+    private static final String ROLLUP_SCHEMA = "CREATE TABLE %s (" +
+        "id BIGINT PRIMARY KEY, bucket_start TIMESTAMP NOT NULL, status VARCHAR(20), error_code VARCHAR(255), " +
+        "verification_count BIGINT NOT NULL, aadhaar_linked_count BIGINT NOT NULL, " +
+        "latency_sum_ms BIGINT NOT NULL, latency_max_ms BIGINT NOT NULL, updated_at TIMESTAMP NOT NULL)";
+
+    // One in 50 failed, latencies up to 2s, response times a fixed permutation of the span's seconds
+    private static final String SEED = "INSERT INTO pan_verification_records " +
+        "SELECT X, CASE MOD(X, 4) WHEN 0 THEN 'ACTIVE' WHEN 1 THEN 'INACTIVE' WHEN 2 THEN 'DEACTIVATED' " +
+        "ELSE 'CANCELLED' END, CASE WHEN MOD(X, 50) = 0 THEN 'API_FAILURE' END, MOD(X, 3) <> 0, " +
+        "DATEADD(MILLISECOND, -MOD(X, 2000), T), T " +
+        "FROM (SELECT X, DATEADD(SECOND, -MOD(X * 7919, ?), CAST(? AS TIMESTAMP)) T FROM SYSTEM_RANGE(1, ?))";
+    // Failed verifications only carry a placeholder status, as in the rollup job
+    private static final String ROLL_UP_HOURLY = "INSERT INTO verification_rollups_hourly " +
+        "SELECT ROW_NUMBER() OVER (), bucket, status, error_code, COUNT(*), " +
+        "SUM(CASE WHEN aadhaar_linked THEN 1 ELSE 0 END), SUM(latency), MAX(latency), CURRENT_TIMESTAMP " +
+        "FROM (SELECT DATE_TRUNC('HOUR', response_timestamp) bucket, " +
+        "CASE WHEN error_code IS NULL THEN status END status, error_code, aadhaar_linked, " +
+        "DATEDIFF(MILLISECOND, request_timestamp, response_timestamp) latency FROM pan_verification_records) " +
+        "GROUP BY bucket, status, error_code";
+    private static final String ROLL_UP_DAILY = "INSERT INTO verification_rollups_daily " +
+        "SELECT ROW_NUMBER() OVER (), bucket, status, error_code, SUM(verification_count), " +
+        "SUM(aadhaar_linked_count), SUM(latency_sum_ms), MAX(latency_max_ms), CURRENT_TIMESTAMP " +
+        "FROM (SELECT DATE_TRUNC('DAY', bucket_start) bucket, status, error_code, verification_count, " +
+        "aadhaar_linked_count, latency_sum_ms, latency_max_ms FROM verification_rollups_hourly) " +
+        "GROUP BY bucket, status, error_code";
+
+    private static final String RAW_SUMMARY = "SELECT status, error_code, COUNT(*), " +
+        "SUM(CASE WHEN aadhaar_linked THEN 1 ELSE 0 END), SUM(latency), MAX(latency) " +
+        "FROM (SELECT CASE WHEN error_code IS NULL THEN status END status, error_code, aadhaar_linked, " +
+        "DATEDIFF(MILLISECOND, request_timestamp, response_timestamp) latency FROM pan_verification_records " +
+        "WHERE response_timestamp >= ? AND response_timestamp < ?) GROUP BY status, error_code";
+    private static final String ROLLUP_ROWS = "SELECT status, error_code, verification_count, " +
+        "aadhaar_linked_count, latency_sum_ms, latency_max_ms FROM %s WHERE bucket_start >= ? AND bucket_start < ?";
+    private static final String ROLLUP_SUMMARY = "SELECT status, error_code, SUM(verification_count), " +
+        "SUM(aadhaar_linked_count), SUM(latency_sum_ms), MAX(latency_max_ms) FROM (" +
+        ROLLUP_ROWS.formatted("verification_rollups_hourly") + " UNION ALL " +
+        ROLLUP_ROWS.formatted("verification_rollups_daily") + " UNION ALL " +
+        ROLLUP_ROWS.formatted("verification_rollups_hourly") + ") GROUP BY status, error_code";
+
+    @Param({"1000000", "10000000"})
+    private long rows;
+
+    @Param({"1", "30"})
+    private int windowDays;
+
+    private Path directory;
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private Timestamp from;
+    private Timestamp firstFullDay;
+    private Timestamp lastFullDay;
+    private Timestamp to;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("rollup-bench");
+        HikariConfig config = new HikariConfig();
+        // No query cache: H2 would otherwise hand back the last result of an unchanged query
+        config.setJdbcUrl("jdbc:h2:file:" + directory.resolve("records") + ";DB_CLOSE_DELAY=-1;QUERY_CACHE_SIZE=0");
+        config.setUsername("sa");
+        config.setPoolName("bench-rollup");
+        config.setMaximumPoolSize(1);
+        dataSource = new HikariDataSource(config);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // Window ends mid-day, so both kinds of rollup rows are read
+        LocalDateTime end = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).minusHours(12);
+        LocalDateTime start = end.minusDays(windowDays);
+        from = Timestamp.valueOf(start);
+        firstFullDay = Timestamp.valueOf(start.truncatedTo(ChronoUnit.DAYS).plusDays(1));
+        lastFullDay = Timestamp.valueOf(end.truncatedTo(ChronoUnit.DAYS));
+        to = Timestamp.valueOf(end);
+
+        jdbcTemplate.execute(SCHEMA);
+        jdbcTemplate.update(SEED, SPAN_DAYS * 86_400L, Timestamp.valueOf(LocalDateTime.now()), rows);
+        jdbcTemplate.execute("CREATE INDEX idx_response_timestamp ON pan_verification_records(response_timestamp)");
+        jdbcTemplate.execute(ROLLUP_SCHEMA.formatted("verification_rollups_hourly"));
+        jdbcTemplate.execute(ROLLUP_SCHEMA.formatted("verification_rollups_daily"));
+        jdbcTemplate.update(ROLL_UP_HOURLY);
+        jdbcTemplate.update(ROLL_UP_DAILY);
+        jdbcTemplate.execute("CREATE INDEX idx_rollups_hourly_bucket ON verification_rollups_hourly(bucket_start)");
+        jdbcTemplate.execute("CREATE INDEX idx_rollups_daily_bucket ON verification_rollups_daily(bucket_start)");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        jdbcTemplate.execute("SHUTDOWN");
+        dataSource.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> rawScan() {
+        return jdbcTemplate.queryForList(RAW_SUMMARY, from, to);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> rollups() {
+        return jdbcTemplate.queryForList(ROLLUP_SUMMARY, from, firstFullDay, firstFullDay, lastFullDay,
+            lastFullDay, to);
+    }
+}
@@ -0,0 +1,72 @@
+package com.chumani.production.panverification.service;
+
+import com.chumani.production.panverification.enums.PANStatus;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verification Metrics Benchmark
+ * Cost of recording a stage sample into a Prometheus histogram through the cached timers,
+ * against building and looking up the tagged timer on every call
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VerificationMetricsBenchmark {
+
+    private PrometheusMeterRegistry registry;
+    private VerificationMetrics metrics;
+
+    @Setup
+    public void setUp() {
+        registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        metrics = new VerificationMetrics();
+        ReflectionTestUtils.setField(metrics, "meterRegistry", registry);
+        ReflectionTestUtils.setField(metrics, "histogramMinMs", 1L);
+        ReflectionTestUtils.setField(metrics, "histogramMaxMs", 30_000L);
+        metrics.init();
+    }
+
+    @Benchmark
+    public void cachedTimer() {
+        metrics.recordStage(VerificationMetrics.Stage.UPSTREAM, VerificationMetrics.Outcome.SUCCESS,
+            PANStatus.ACTIVE, 1_500_000);
+    }
+
+    @Benchmark
+    public void timerLookedUpPerCall() {
+        Timer.builder("pan.verification.stage")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(1))
+            .maximumExpectedValue(Duration.ofSeconds(30))
+            .tag("stage", "upstream")
+            .tag("outcome", "success")
+            .tag("status", PANStatus.ACTIVE.name().toLowerCase())
+            .register(registry)
+            .record(1_500_000, TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void cachedTimerContended() {
+        cachedTimer();
+    }
+}
@@ -0,0 +1,72 @@
+package com.chumani.production.panverification.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ID Generator Benchmark
+ * Snowflake ids against the UUID-based reference numbers, transaction ids and trace ids they
+ * replaced, single-threaded and with 8 threads contending
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdGeneratorBenchmark {
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+
+    @Benchmark
+    public String uuidReferenceNumber() {
+        return "PAN" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 4).toUpperCase();
+    }
+
+    @Benchmark
+    public String uuidTransactionId() {
+        return "TXN" + UUID.randomUUID().toString().replace("-", "").substring(0, 12).toUpperCase();
+    }
+
+    @Benchmark
+    public String uuidTraceId() {
+        return "TRACE-" + LocalDateTime.now().format(TIMESTAMP_FORMAT) + "-"
+            + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+
+    @Benchmark
+    public long snowflakeId() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    public String snowflakeReferenceNumber() {
+        return generator.nextId("PAN");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String uuidTransactionIdContended() {
+        return uuidTransactionId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String snowflakeReferenceNumberContended() {
+        return generator.nextId("PAN");
+    }
+}
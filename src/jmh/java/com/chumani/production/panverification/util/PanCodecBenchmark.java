@@ -0,0 +1,64 @@
+package com.chumani.production.panverification.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * PAN Codec Benchmark
+ * PAN validation and masking through PanCodec, against the regular expression and
+ * substring masking they replaced
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PanCodecBenchmark {
+
+    private static final Pattern PAN_PATTERN = Pattern.compile("^[A-Z]{3}P[A-Z][0-9]{4}[A-Z]$");
+
+    private String pan = "ABCPE1234F";
+    private long key = PanCodec.encode("ABCPE1234F");
+    private final char[] buffer = new char[PanCodec.MASKED_LENGTH];
+
+    @Benchmark
+    public boolean regexValidate() {
+        return PAN_PATTERN.matcher(pan).matches();
+    }
+
+    @Benchmark
+    public long encode() {
+        return PanCodec.encode(pan);
+    }
+
+    @Benchmark
+    public String decode() {
+        return PanCodec.decode(key);
+    }
+
+    @Benchmark
+    public String substringMask() {
+        return "XXXX" + pan.substring(4, 8) + pan.substring(9);
+    }
+
+    @Benchmark
+    public String mask() {
+        return PanCodec.mask(pan);
+    }
+
+    @Benchmark
+    public char[] maskIntoBuffer() {
+        PanCodec.mask(key, buffer, 0);
+        return buffer;
+    }
+}
@@ -2,8 +2,10 @@ package com.chumani.production.panverification;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ProductionPanVerificationApplication {
     public static void main(String[] args) {
         SpringApplication.run(ProductionPanVerificationApplication.class, args);
@@ -0,0 +1,53 @@
+package com.chumani.production.panverification.config;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.chumani.production.panverification.util.SnowflakeIdGenerator;
+
+/**
+ * ID generator configuration
+ * One Snowflake generator per instance for reference numbers, transaction ids and trace ids.
+ * Instances sharing a database need distinct node ids: set pan.verification.ids.node-id, otherwise
+ * it is derived from the host name (collisions are possible, so fine for local runs only). With
+ * require-node-id (the postgres profile) startup fails instead: the partitioned records table
+ * cannot enforce unique reference numbers, so two nodes with the same id would go unnoticed.
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGeneratorConfig.class);
+
+    @Value("${pan.verification.ids.node-id:-1}")
+    private long nodeId;
+
+    @Value("${pan.verification.ids.require-node-id:false}")
+    private boolean requireNodeId;
+
+    @Bean
+    public SnowflakeIdGenerator idGenerator() {
+        if (nodeId < 0 && requireNodeId) {
+            throw new IllegalStateException("pan.verification.ids.node-id must be set (0-"
+                + SnowflakeIdGenerator.MAX_NODE_ID + ", distinct per instance sharing the database)");
+        }
+        long node = nodeId >= 0 ? nodeId : hostNodeId();
+        logger.info("Generating ids as node {}", node);
+        return new SnowflakeIdGenerator(node);
+    }
+
+    private static long hostNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = System.getenv().getOrDefault("HOSTNAME", "localhost");
+        }
+        return Math.floorMod(host.hashCode(), SnowflakeIdGenerator.MAX_NODE_ID + 1);
+    }
+}
@@ -0,0 +1,77 @@
+package com.chumani.production.panverification.config;
+
+import java.time.Duration;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.chumani.production.panverification.stub.ProteanStubServer;
+
+/**
+ * Protean HTTP client configuration
+ * Pooled, keep-alive HTTP client with connect/response timeouts for the Protean API,
+ * plus the optional embedded stub server used for local runs.
+ */
+@Configuration
+public class ProteanClientConfig {
+
+    @Value("${protean.api.timeout:5000}")
+    private int timeoutMs;
+
+    @Value("${protean.api.connect-timeout:${protean.api.timeout:5000}}")
+    private int connectTimeoutMs;
+
+    @Value("${protean.api.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${protean.api.max-connections-per-route:50}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${protean.api.keep-alive:PT30S}")
+    private Duration keepAlive;
+
+    @Value("${protean.api.idle-eviction:PT30S}")
+    private Duration idleEviction;
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient proteanHttpClient() {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnectionsPerRoute)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                .setSocketTimeout(Timeout.ofMilliseconds(timeoutMs))
+                .build())
+            .build();
+
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                // Waiting for a pooled connection counts against the same budget
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(timeoutMs))
+                .setResponseTimeout(Timeout.ofMilliseconds(timeoutMs))
+                .build())
+            .setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(keepAlive.toMillis()))
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.ofMilliseconds(idleEviction.toMillis()))
+            .build();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(name = "protean.stub.enabled", havingValue = "true")
+    public ProteanStubServer proteanStubServer(@Value("${protean.stub.port:8082}") int port,
+                                               @Value("${protean.stub.delay-ms:5000}") long delayMs,
+                                               @Value("${protean.stub.slow-ratio:0}") double slowRatio) {
+        return new ProteanStubServer(port, delayMs, slowRatio);
+    }
+}
@@ -0,0 +1,54 @@
+package com.chumani.production.panverification.controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.chumani.production.panverification.dto.AuditEntry;
+import com.chumani.production.panverification.journal.AuditJournal;
+
+/**
+ * Audit journal lookups by trace id and/or time range, oldest first.
+ * Without a trace id or from, the last hour is scanned.
+ */
+@RestController
+@RequestMapping("/api/pan/audit")
+public class AuditController {
+
+    @Autowired
+    private AuditJournal auditJournal;
+
+    @GetMapping
+    public ResponseEntity<List<AuditEntry>> getEntries(
+            @RequestParam(required = false) String traceId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > auditJournal.getMaxScanResults()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "limit must be between 1 and " + auditJournal.getMaxScanResults());
+        }
+        if (traceId == null && from == null) {
+            from = (to != null ? to : LocalDateTime.now()).minusHours(1);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        try {
+            return ResponseEntity.ok(auditJournal.scan(traceId, from, to, limit));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,34 +1,148 @@
 package com.chumani.production.panverification.controller;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.chumani.production.panverification.dto.PANVerificationRequest;
 import com.chumani.production.panverification.dto.PANVerificationResponse;
+import com.chumani.production.panverification.dto.VerificationCursor;
+import com.chumani.production.panverification.dto.VerificationPage;
+import com.chumani.production.panverification.dto.VerificationStats;
+import com.chumani.production.panverification.service.AsyncVerificationWorker;
+import com.chumani.production.panverification.service.IdempotencyService;
 import com.chumani.production.panverification.service.PANVerificationService;
+import com.chumani.production.panverification.util.Deadline;
+import com.chumani.production.panverification.util.PanCodec;
+import com.chumani.production.panverification.util.RequestTrace;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 
 @RestController
 @RequestMapping("/api/pan")
 public class PANVerificationController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    // Relative (milliseconds or an ISO-8601 duration) and absolute (epoch milliseconds or an ISO-8601 instant)
+    private static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout";
+    private static final String REQUEST_DEADLINE_HEADER = "X-Request-Deadline";
+
+    private static final Map<String, Duration> STATS_WINDOWS = Map.of(
+        "1m", Duration.ofMinutes(1),
+        "5m", Duration.ofMinutes(5),
+        "1h", Duration.ofHours(1),
+        "24h", Duration.ofHours(24));
+
     @Autowired
     private PANVerificationService service;
 
+    @Autowired
+    private AsyncVerificationWorker asyncVerificationWorker;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${pan.verification.async.enabled:true}")
+    private boolean asyncEnabled;
+
+    @Value("${pan.verification.idempotency.enabled:true}")
+    private boolean idempotencyEnabled;
+
+    @Value("${pan.verification.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${pan.verification.history.max-page-size:500}")
+    private int maxPageSize;
+
+    @Value("${pan.verification.deadline.defaults.verify:PT10S}")
+    private Duration defaultVerifyTimeout;
+
+    @Value("${pan.verification.deadline.defaults.batch:PT5M}")
+    private Duration defaultBatchTimeout;
+
+    @Value("${pan.verification.deadline.max-timeout:PT10M}")
+    private Duration maxTimeout;
+
     @PostMapping("/verify")
-    public ResponseEntity<PANVerificationResponse> verifyPAN(@Valid @RequestBody PANVerificationRequest request) {
-        PANVerificationResponse result = service.verifyPAN(request);
-        return ResponseEntity.ok(result);
+    public ResponseEntity<PANVerificationResponse> verifyPAN(@Valid @RequestBody PANVerificationRequest request,
+            @RequestParam(required = false) String mode,
+            @RequestHeader(name = "Prefer", required = false) String prefer,
+            @RequestHeader(name = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestHeader(name = REQUEST_TIMEOUT_HEADER, required = false) String timeout,
+            @RequestHeader(name = REQUEST_DEADLINE_HEADER, required = false) String deadlineAt,
+            @RequestAttribute(name = RequestTrace.ATTRIBUTE, required = false) RequestTrace trace) {
+        Deadline deadline = deadline(timeout, deadlineAt, defaultVerifyTimeout, trace);
+        RequestTrace verifyTrace = validated(trace);
+        boolean async = asyncEnabled && isAsyncRequested(mode, prefer);
+        if (idempotencyEnabled && idempotencyKey != null) {
+            return idempotencyService.execute(idempotencyKey, request, async, deadline,
+                () -> verify(request, async, verifyTrace, deadline));
+        }
+        return verify(request, async, verifyTrace, deadline);
+    }
+
+    @PostMapping(value = "/verify/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<PANVerificationResponse>> verifyBatch(
+            @NotEmpty @RequestBody List<@Valid PANVerificationRequest> requests,
+            @RequestHeader(name = REQUEST_TIMEOUT_HEADER, required = false) String timeout,
+            @RequestHeader(name = REQUEST_DEADLINE_HEADER, required = false) String deadlineAt,
+            @RequestAttribute(name = RequestTrace.ATTRIBUTE, required = false) RequestTrace trace) {
+        checkBatchSize(requests);
+        Deadline deadline = deadline(timeout, deadlineAt, defaultBatchTimeout, trace);
+        return ResponseEntity.ok(service.verifyBatch(requests, validated(trace), deadline));
+    }
+
+    @PostMapping(value = "/verify/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> verifyBatchStream(
+            @NotEmpty @RequestBody List<@Valid PANVerificationRequest> requests,
+            @RequestHeader(name = REQUEST_TIMEOUT_HEADER, required = false) String timeout,
+            @RequestHeader(name = REQUEST_DEADLINE_HEADER, required = false) String deadlineAt,
+            @RequestAttribute(name = RequestTrace.ATTRIBUTE, required = false) RequestTrace trace) {
+        checkBatchSize(requests);
+        Deadline deadline = deadline(timeout, deadlineAt, defaultBatchTimeout, trace);
+        RequestTrace batchTrace = validated(trace);
+        StreamingResponseBody body = outputStream -> service.verifyBatch(requests, batchTrace, deadline, response -> {
+            if (deadline.isCancelled()) {
+                // Client gone: the rest of the batch is shed and still recorded, just not sent
+                return;
+            }
+            // Each result is sent as soon as it is ready
+            try {
+                writeLine(outputStream, response);
+                outputStream.flush();
+            } catch (IOException | UncheckedIOException e) {
+                deadline.cancel();
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @GetMapping("/status/{referenceNumber}")
@@ -38,9 +152,170 @@ public class PANVerificationController {
             .orElse(ResponseEntity.notFound().build());
     }
 
-    @GetMapping("/history")
-    public ResponseEntity<List<PANVerificationResponse>> getHistory(@RequestParam String panNumber) {
-        List<PANVerificationResponse> history = service.getVerificationHistory(panNumber);
-        return ResponseEntity.ok(history);
+    // Keyset-paginated: follow the X-Next-Cursor header (absent on the last page) with ?cursor=
+    @GetMapping(value = "/history", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<PANVerificationResponse>> getHistory(@RequestParam String panNumber,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        checkPageLimit(limit);
+        VerificationPage page = service.getVerificationHistory(parsePan(panNumber), parseCursor(cursor), limit);
+        return pageResponse(page);
+    }
+
+    @GetMapping(value = "/history", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportHistory(@RequestParam String panNumber) {
+        long panKey = parsePan(panNumber);
+        StreamingResponseBody body = outputStream ->
+            service.exportVerificationHistory(panKey, response -> writeLine(outputStream, response));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping(value = "/recent", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<PANVerificationResponse>> getRecent(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        checkPageLimit(limit);
+        return pageResponse(service.getRecentVerifications(parseCursor(cursor), limit));
+    }
+
+    @GetMapping(value = "/recent", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportRecent() {
+        StreamingResponseBody body = outputStream ->
+            service.exportRecentVerifications(response -> writeLine(outputStream, response));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<VerificationStats> getStats(@RequestParam(defaultValue = "24h") String window) {
+        Duration duration = STATS_WINDOWS.get(window);
+        if (duration == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Unsupported stats window " + window + ", expected one of 1m, 5m, 1h, 24h");
+        }
+        return ResponseEntity.ok(service.getVerificationStats(duration));
+    }
+
+    // Time to here (body parsing and bean validation) is the validation stage; no trace when called outside the filter
+    private static RequestTrace validated(RequestTrace trace) {
+        if (trace == null) {
+            return RequestTrace.untraced();
+        }
+        trace.record(RequestTrace.Stage.VALIDATION, System.nanoTime() - trace.getStartNanos());
+        return trace;
+    }
+
+    /**
+     * The request's deadline from its headers (the earlier wins when both are sent), else the
+     * endpoint default; measured from when the request arrived, and never beyond max-timeout
+     */
+    private Deadline deadline(String timeout, String deadlineAt, Duration defaultTimeout, RequestTrace trace) {
+        long startNanos = trace != null && trace.isRecording() ? trace.getStartNanos() : System.nanoTime();
+        Duration budget = timeout != null ? parseTimeout(timeout) : defaultTimeout;
+        if (deadlineAt != null) {
+            // Wall-clock deadline: what is left of it now, counted from the request's start
+            Duration untilDeadline = Duration.ofMillis(parseDeadline(deadlineAt).toEpochMilli() - System.currentTimeMillis())
+                .plusNanos(System.nanoTime() - startNanos);
+            if (timeout == null || untilDeadline.compareTo(budget) < 0) {
+                budget = untilDeadline;
+            }
+        }
+        return Deadline.after(startNanos, budget.compareTo(maxTimeout) > 0 ? maxTimeout : budget);
+    }
+
+    private static Duration parseTimeout(String timeout) {
+        try {
+            Duration duration = timeout.chars().allMatch(Character::isDigit)
+                ? Duration.ofMillis(Long.parseLong(timeout))
+                : Duration.parse(timeout);
+            if (duration.isNegative() || duration.isZero()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, REQUEST_TIMEOUT_HEADER + " must be positive");
+            }
+            return duration;
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Invalid " + REQUEST_TIMEOUT_HEADER + ", expected milliseconds or an ISO-8601 duration");
+        }
+    }
+
+    private static Instant parseDeadline(String deadlineAt) {
+        try {
+            return deadlineAt.chars().allMatch(Character::isDigit)
+                ? Instant.ofEpochMilli(Long.parseLong(deadlineAt))
+                : Instant.parse(deadlineAt);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Invalid " + REQUEST_DEADLINE_HEADER + ", expected epoch milliseconds or an ISO-8601 instant");
+        }
+    }
+
+    // Async verifications outlive the request, so only the synchronous path is bound by the deadline.
+    // Tomcat reads nothing from the connection while the request is processed (not even in async
+    // mode), so a client closing it goes unnoticed until the response is written: the deadline the
+    // client sends is what stops the work.
+    private ResponseEntity<PANVerificationResponse> verify(PANVerificationRequest request, boolean async,
+                                                           RequestTrace trace, Deadline deadline) {
+        if (async) {
+            PANVerificationResponse accepted = asyncVerificationWorker.submit(request, trace);
+            return ResponseEntity.accepted()
+                .location(URI.create("/api/pan/status/" + accepted.getReferenceNumber()))
+                .body(accepted);
+        }
+        return ResponseEntity.ok(service.verifyPAN(request, trace, deadline));
+    }
+
+    // Opt-in via ?mode=async or the RFC 7240 "Prefer: respond-async" header
+    private boolean isAsyncRequested(String mode, String prefer) {
+        return "async".equalsIgnoreCase(mode)
+            || (prefer != null && prefer.toLowerCase().contains("respond-async"));
+    }
+
+    private void writeLine(OutputStream outputStream, PANVerificationResponse response) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(response));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ResponseEntity<List<PANVerificationResponse>> pageResponse(VerificationPage page) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return builder.body(page.getItems());
+    }
+
+    private long parsePan(String panNumber) {
+        long panKey = PanCodec.encode(panNumber);
+        if (panKey == PanCodec.INVALID) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid PAN");
+        }
+        return panKey;
+    }
+
+    private VerificationCursor parseCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return VerificationCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    private void checkPageLimit(int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Page limit must be between 1 and " + maxPageSize);
+        }
+    }
+
+    private void checkBatchSize(List<PANVerificationRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Batch size " + requests.size() + " exceeds maximum of " + maxBatchSize);
+        }
     }
 }
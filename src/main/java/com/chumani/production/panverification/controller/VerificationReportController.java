@@ -0,0 +1,75 @@
+package com.chumani.production.panverification.controller;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.chumani.production.panverification.dto.RollupReportRow;
+import com.chumani.production.panverification.dto.RollupSummary;
+import com.chumani.production.panverification.service.VerificationRollupService;
+
+/**
+ * Reporting endpoints served from the hourly/daily rollup tables.
+ * Ranges are [from, to) in ISO date-time; rollups lag real time by the rollup settle lag.
+ */
+@RestController
+@RequestMapping("/api/pan/reports")
+public class VerificationReportController {
+
+    private static final Duration MAX_HOURLY_RANGE = Duration.ofDays(31);
+    private static final Duration MAX_DAILY_RANGE = Duration.ofDays(366 * 2);
+
+    @Autowired
+    private VerificationRollupService rollupService;
+
+    @GetMapping("/hourly")
+    public ResponseEntity<List<RollupReportRow>> getHourly(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        LocalDateTime start = from != null ? from : end.minusDays(1);
+        checkRange(start, end, MAX_HOURLY_RANGE);
+        return ResponseEntity.ok(rollupService.getHourlyReport(start, end));
+    }
+
+    @GetMapping("/daily")
+    public ResponseEntity<List<RollupReportRow>> getDaily(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).plusDays(1);
+        LocalDateTime start = from != null ? from : end.minusDays(30);
+        checkRange(start, end, MAX_DAILY_RANGE);
+        return ResponseEntity.ok(rollupService.getDailyReport(start, end));
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<RollupSummary> getSummary(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        LocalDateTime start = from != null ? from : end.minusDays(1);
+        checkRange(start, end, MAX_DAILY_RANGE);
+        return ResponseEntity.ok(rollupService.getSummary(start, end));
+    }
+
+    private void checkRange(LocalDateTime from, LocalDateTime to, Duration maxRange) {
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+        if (Duration.between(from, to).compareTo(maxRange) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Range exceeds maximum of " + maxRange.toDays() + " days");
+        }
+    }
+}
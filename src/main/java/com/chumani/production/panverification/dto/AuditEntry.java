@@ -0,0 +1,53 @@
+package com.chumani.production.panverification.dto;
+
+import com.chumani.production.panverification.enums.AuditEntryType;
+import com.chumani.production.panverification.enums.PANStatus;
+import java.time.LocalDateTime;
+
+/**
+ * Audit Entry DTO
+ * One entry read back from the audit journal. The PAN is only ever stored masked;
+ * status, Aadhaar link and duration are absent on REQUEST entries.
+ */
+public class AuditEntry {
+
+    private final AuditEntryType type;
+    private final LocalDateTime timestamp;
+    private final String traceId;
+    private final String referenceNumber;
+    private final String maskedPan;
+    private final PANStatus status;
+    private final Boolean aadhaarLinked;
+    private final Integer retryCount;
+    private final Boolean servedFromCache;
+    private final Long durationMicros;
+    private final String errorCode;
+
+    public AuditEntry(AuditEntryType type, LocalDateTime timestamp, String traceId, String referenceNumber,
+                      String maskedPan, PANStatus status, Boolean aadhaarLinked, Integer retryCount,
+                      Boolean servedFromCache, Long durationMicros, String errorCode) {
+        this.type = type;
+        this.timestamp = timestamp;
+        this.traceId = traceId;
+        this.referenceNumber = referenceNumber;
+        this.maskedPan = maskedPan;
+        this.status = status;
+        this.aadhaarLinked = aadhaarLinked;
+        this.retryCount = retryCount;
+        this.servedFromCache = servedFromCache;
+        this.durationMicros = durationMicros;
+        this.errorCode = errorCode;
+    }
+
+    public AuditEntryType getType() { return type; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public String getTraceId() { return traceId; }
+    public String getReferenceNumber() { return referenceNumber; }
+    public String getMaskedPan() { return maskedPan; }
+    public PANStatus getStatus() { return status; }
+    public Boolean getAadhaarLinked() { return aadhaarLinked; }
+    public Integer getRetryCount() { return retryCount; }
+    public Boolean getServedFromCache() { return servedFromCache; }
+    public Long getDurationMicros() { return durationMicros; }
+    public String getErrorCode() { return errorCode; }
+}
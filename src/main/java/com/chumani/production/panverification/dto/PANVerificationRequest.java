@@ -1,7 +1,8 @@
 package com.chumani.production.panverification.dto;
 
+import com.chumani.production.panverification.util.PanCodec;
+import com.chumani.production.panverification.validation.ValidPan;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
 /**
@@ -11,8 +12,7 @@ import jakarta.validation.constraints.Size;
 public class PANVerificationRequest {
 
     @NotBlank(message = "PAN number is required")
-    @Pattern(regexp = "^[A-Z]{3}P[A-Z][0-9]{4}[A-Z]$",
-             message = "PAN format must be: 3 alphabets + P + 1 alphabet + 4 digits + 1 alphabet")
+    @ValidPan
     @Size(min = 10, max = 10, message = "PAN must be exactly 10 characters")
     private String pan;
 
@@ -20,6 +20,9 @@ public class PANVerificationRequest {
     @Size(min = 2, max = 100, message = "Name must be between 2 and 100 characters")
     private String name;
 
+    // Skip the verification result cache and force a fresh Protean call
+    private boolean forceRefresh;
+
     // Constructors
     public PANVerificationRequest() {}
 
@@ -35,10 +38,12 @@ public class PANVerificationRequest {
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
 
+    public boolean isForceRefresh() { return forceRefresh; }
+    public void setForceRefresh(boolean forceRefresh) { this.forceRefresh = forceRefresh; }
+
     // Business methods for PII masking
     public String getMaskedPan() {
-        if (pan == null || pan.length() != 10) return "INVALID_PAN";
-        return "XXXX" + pan.substring(4, 8) + pan.substring(9);
+        return PanCodec.mask(pan);
     }
 
     public String getMaskedName() {
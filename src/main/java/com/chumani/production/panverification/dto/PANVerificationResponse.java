@@ -1,6 +1,7 @@
 package com.chumani.production.panverification.dto;
 
 import com.chumani.production.panverification.enums.PANStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.time.LocalDateTime;
 
 /**
@@ -18,6 +19,12 @@ public class PANVerificationResponse {
     private String message;
     private String errorCode;
     private String errorMessage;
+    private Boolean servedFromCache;
+    private Integer retryCount;
+
+    // Position in the originating batch request, only set for batch verifications
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer batchIndex;
 
     // Constructors
     public PANVerificationResponse() {}
@@ -59,6 +66,15 @@ public class PANVerificationResponse {
     public String getErrorMessage() { return errorMessage; }
     public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
 
+    public Boolean getServedFromCache() { return servedFromCache; }
+    public void setServedFromCache(Boolean servedFromCache) { this.servedFromCache = servedFromCache; }
+
+    public Integer getRetryCount() { return retryCount; }
+    public void setRetryCount(Integer retryCount) { this.retryCount = retryCount; }
+
+    public Integer getBatchIndex() { return batchIndex; }
+    public void setBatchIndex(Integer batchIndex) { this.batchIndex = batchIndex; }
+
     @Override
     public String toString() {
         return "PANVerificationResponse{" +
@@ -0,0 +1,36 @@
+package com.chumani.production.panverification.dto;
+
+/**
+ * Protean Verification Request
+ * Wire format of a single verification call to the Protean API
+ */
+public class ProteanVerificationRequest {
+
+    private String pan;
+    private String name;
+    private String traceId;
+
+    // Constructors
+    public ProteanVerificationRequest() {}
+
+    public ProteanVerificationRequest(String pan, String name, String traceId) {
+        this.pan = pan;
+        this.name = name;
+        this.traceId = traceId;
+    }
+
+    // Getters and Setters
+    public String getPan() { return pan; }
+    public void setPan(String pan) { this.pan = pan; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getTraceId() { return traceId; }
+    public void setTraceId(String traceId) { this.traceId = traceId; }
+
+    @Override
+    public String toString() {
+        return "ProteanVerificationRequest{traceId='" + traceId + "'}";
+    }
+}
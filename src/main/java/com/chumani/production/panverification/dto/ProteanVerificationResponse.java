@@ -0,0 +1,31 @@
+package com.chumani.production.panverification.dto;
+
+/**
+ * Protean Verification Response
+ * Wire format of the Protean API verification result
+ */
+public class ProteanVerificationResponse {
+
+    private String transactionId;
+    private String status;
+    private Boolean aadhaarLinked;
+
+    // Constructors
+    public ProteanVerificationResponse() {}
+
+    public ProteanVerificationResponse(String transactionId, String status, Boolean aadhaarLinked) {
+        this.transactionId = transactionId;
+        this.status = status;
+        this.aadhaarLinked = aadhaarLinked;
+    }
+
+    // Getters and Setters
+    public String getTransactionId() { return transactionId; }
+    public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Boolean getAadhaarLinked() { return aadhaarLinked; }
+    public void setAadhaarLinked(Boolean aadhaarLinked) { this.aadhaarLinked = aadhaarLinked; }
+}
@@ -0,0 +1,52 @@
+package com.chumani.production.panverification.dto;
+
+import com.chumani.production.panverification.entity.VerificationRollup;
+import com.chumani.production.panverification.enums.PANStatus;
+import java.time.LocalDateTime;
+
+/**
+ * Rollup Report Row DTO
+ * One hourly or daily rollup bucket for a status (successful verifications) or error code (failed ones)
+ */
+public class RollupReportRow {
+
+    private final LocalDateTime bucketStart;
+    private final PANStatus status;
+    private final String errorCode;
+    private final long verificationCount;
+    private final long aadhaarLinkedCount;
+    private final long latencySumMs;
+    private final long latencyMaxMs;
+
+    public RollupReportRow(LocalDateTime bucketStart, PANStatus status, String errorCode, long verificationCount,
+                           long aadhaarLinkedCount, long latencySumMs, long latencyMaxMs) {
+        this.bucketStart = bucketStart;
+        this.status = status;
+        this.errorCode = errorCode;
+        this.verificationCount = verificationCount;
+        this.aadhaarLinkedCount = aadhaarLinkedCount;
+        this.latencySumMs = latencySumMs;
+        this.latencyMaxMs = latencyMaxMs;
+    }
+
+    public static RollupReportRow of(VerificationRollup rollup) {
+        return new RollupReportRow(rollup.getBucketStart(), rollup.getStatus(), rollup.getErrorCode(),
+            rollup.getVerificationCount(), rollup.getAadhaarLinkedCount(),
+            rollup.getLatencySumMs(), rollup.getLatencyMaxMs());
+    }
+
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public PANStatus getStatus() { return status; }
+    public String getErrorCode() { return errorCode; }
+    public long getVerificationCount() { return verificationCount; }
+    public long getAadhaarLinkedCount() { return aadhaarLinkedCount; }
+    public long getLatencyMaxMs() { return latencyMaxMs; }
+
+    public double getAadhaarLinkedRatio() {
+        return verificationCount == 0 ? 0 : (double) aadhaarLinkedCount / verificationCount;
+    }
+
+    public double getAverageLatencyMs() {
+        return verificationCount == 0 ? 0 : (double) latencySumMs / verificationCount;
+    }
+}
@@ -0,0 +1,57 @@
+package com.chumani.production.panverification.dto;
+
+import com.chumani.production.panverification.entity.VerificationRollup;
+import com.chumani.production.panverification.enums.PANStatus;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rollup Summary DTO
+ * Verification totals over a reporting range, summed from rollup rows
+ */
+public class RollupSummary {
+
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final Map<PANStatus, Long> statusCounts = new EnumMap<>(PANStatus.class);
+    private final Map<String, Long> errorCounts = new TreeMap<>();
+    private long verificationCount;
+    private long aadhaarLinkedCount;
+    private long latencySumMs;
+    private long latencyMaxMs;
+
+    public RollupSummary(LocalDateTime from, LocalDateTime to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public void add(VerificationRollup rollup) {
+        if (rollup.getErrorCode() != null) {
+            errorCounts.merge(rollup.getErrorCode(), rollup.getVerificationCount(), Long::sum);
+        } else if (rollup.getStatus() != null) {
+            statusCounts.merge(rollup.getStatus(), rollup.getVerificationCount(), Long::sum);
+        }
+        verificationCount += rollup.getVerificationCount();
+        aadhaarLinkedCount += rollup.getAadhaarLinkedCount();
+        latencySumMs += rollup.getLatencySumMs();
+        latencyMaxMs = Math.max(latencyMaxMs, rollup.getLatencyMaxMs());
+    }
+
+    public LocalDateTime getFrom() { return from; }
+    public LocalDateTime getTo() { return to; }
+    public Map<PANStatus, Long> getStatusCounts() { return statusCounts; }
+    public Map<String, Long> getErrorCounts() { return errorCounts; }
+    public long getVerificationCount() { return verificationCount; }
+    public long getAadhaarLinkedCount() { return aadhaarLinkedCount; }
+    public long getLatencyMaxMs() { return latencyMaxMs; }
+
+    public double getAadhaarLinkedRatio() {
+        return verificationCount == 0 ? 0 : (double) aadhaarLinkedCount / verificationCount;
+    }
+
+    public double getAverageLatencyMs() {
+        return verificationCount == 0 ? 0 : (double) latencySumMs / verificationCount;
+    }
+}
@@ -0,0 +1,51 @@
+package com.chumani.production.panverification.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Verification Cursor
+ * Keyset position in a (createdAt DESC, id DESC) listing: the next page starts strictly
+ * after this row. Opaque to clients as a URL-safe token.
+ */
+public class VerificationCursor {
+
+    private final LocalDateTime createdAt;
+    private final long id;
+
+    public VerificationCursor(LocalDateTime createdAt, long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static VerificationCursor after(VerificationSummary last) {
+        return new VerificationCursor(last.getCreatedAt(), last.getId());
+    }
+
+    /**
+     * Parse a token produced by {@link #encode()}; IllegalArgumentException if malformed
+     */
+    public static VerificationCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('_');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new VerificationCursor(LocalDateTime.parse(value.substring(0, separator)),
+                Long.parseLong(value.substring(separator + 1)));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((createdAt + "_" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public long getId() { return id; }
+}
@@ -0,0 +1,21 @@
+package com.chumani.production.panverification.dto;
+
+import java.util.List;
+
+/**
+ * Verification Page
+ * One page of a keyset-paginated listing; nextCursor is null on the last page
+ */
+public class VerificationPage {
+
+    private final List<PANVerificationResponse> items;
+    private final String nextCursor;
+
+    public VerificationPage(List<PANVerificationResponse> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<PANVerificationResponse> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+}
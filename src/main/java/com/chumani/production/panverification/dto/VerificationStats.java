@@ -0,0 +1,46 @@
+package com.chumani.production.panverification.dto;
+
+import com.chumani.production.panverification.enums.PANStatus;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Verification Stats DTO
+ * Verification counts over a recent time window
+ */
+public class VerificationStats {
+
+    private final Duration window;
+    private final Map<PANStatus, Long> statusCounts;
+    private final Map<String, Long> errorCounts;
+    private final long upstreamAttempts;
+    private final long servedFromCache;
+
+    public VerificationStats(Duration window, Map<PANStatus, Long> statusCounts, Map<String, Long> errorCounts,
+                             long upstreamAttempts, long servedFromCache) {
+        this.window = window;
+        this.statusCounts = statusCounts;
+        this.errorCounts = errorCounts;
+        this.upstreamAttempts = upstreamAttempts;
+        this.servedFromCache = servedFromCache;
+    }
+
+    // e.g. "5m", "24h"
+    public String getWindow() {
+        long minutes = window.toMinutes();
+        return minutes % 60 == 0 ? minutes / 60 + "h" : minutes + "m";
+    }
+
+    public Map<PANStatus, Long> getStatusCounts() { return statusCounts; }
+    public Map<String, Long> getErrorCounts() { return errorCounts; }
+    public long getUpstreamAttempts() { return upstreamAttempts; }
+    public long getServedFromCache() { return servedFromCache; }
+
+    public long getActiveCount() { return statusCounts.getOrDefault(PANStatus.ACTIVE, 0L); }
+    public long getInactiveCount() { return statusCounts.getOrDefault(PANStatus.INACTIVE, 0L); }
+    public long getErrorCount() { return errorCounts.values().stream().mapToLong(Long::longValue).sum(); }
+
+    public long getTotalCount() {
+        return statusCounts.values().stream().mapToLong(Long::longValue).sum() + getErrorCount();
+    }
+}
@@ -0,0 +1,64 @@
+package com.chumani.production.panverification.dto;
+
+import com.chumani.production.panverification.entity.PANVerificationRecord;
+import com.chumani.production.panverification.enums.PANStatus;
+import java.time.LocalDateTime;
+
+/**
+ * Verification Summary DTO
+ * Read-only projection of a verification record with just the columns responses need,
+ * selected by JPQL constructor expressions so list queries never load full entities.
+ */
+public class VerificationSummary {
+
+    private final Long id;
+    private final String referenceNumber;
+    private final String transactionId;
+    private final String traceId;
+    private final PANStatus status;
+    private final Boolean aadhaarLinked;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime responseTimestamp;
+    private final String errorCode;
+    private final String errorMessage;
+    private final Boolean servedFromCache;
+    private final Integer retryCount;
+
+    public VerificationSummary(Long id, String referenceNumber, String transactionId, String traceId,
+                               PANStatus status, Boolean aadhaarLinked, LocalDateTime createdAt,
+                               LocalDateTime responseTimestamp, String errorCode, String errorMessage,
+                               Boolean servedFromCache, Integer retryCount) {
+        this.id = id;
+        this.referenceNumber = referenceNumber;
+        this.transactionId = transactionId;
+        this.traceId = traceId;
+        this.status = status;
+        this.aadhaarLinked = aadhaarLinked;
+        this.createdAt = createdAt;
+        this.responseTimestamp = responseTimestamp;
+        this.errorCode = errorCode;
+        this.errorMessage = errorMessage;
+        this.servedFromCache = servedFromCache;
+        this.retryCount = retryCount;
+    }
+
+    public static VerificationSummary of(PANVerificationRecord record) {
+        return new VerificationSummary(record.getId(), record.getReferenceNumber(), record.getTransactionId(),
+            record.getTraceId(), record.getStatus(), record.getAadhaarLinked(), record.getCreatedAt(),
+            record.getResponseTimestamp(), record.getErrorCode(), record.getErrorMessage(),
+            record.getServedFromCache(), record.getRetryCount());
+    }
+
+    public Long getId() { return id; }
+    public String getReferenceNumber() { return referenceNumber; }
+    public String getTransactionId() { return transactionId; }
+    public String getTraceId() { return traceId; }
+    public PANStatus getStatus() { return status; }
+    public Boolean getAadhaarLinked() { return aadhaarLinked; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getResponseTimestamp() { return responseTimestamp; }
+    public String getErrorCode() { return errorCode; }
+    public String getErrorMessage() { return errorMessage; }
+    public Boolean getServedFromCache() { return servedFromCache; }
+    public Integer getRetryCount() { return retryCount; }
+}
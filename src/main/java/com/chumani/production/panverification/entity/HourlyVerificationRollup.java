@@ -0,0 +1,39 @@
+package com.chumani.production.panverification.entity;
+
+import java.time.LocalDateTime;
+
+import com.chumani.production.panverification.enums.PANStatus;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+/**
+ * Hourly Verification Rollup Entity
+ * One row per hour, status and error code
+ */
+@Entity
+@Table(name = "verification_rollups_hourly", indexes = {
+    @Index(name = "idx_rollups_hourly_bucket", columnList = "bucketStart")
+})
+public class HourlyVerificationRollup extends VerificationRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "verification_rollup_hourly_id")
+    @SequenceGenerator(name = "verification_rollup_hourly_id", sequenceName = "verification_rollups_hourly_seq",
+                       allocationSize = 50)
+    private Long id;
+
+    protected HourlyVerificationRollup() {}
+
+    public HourlyVerificationRollup(LocalDateTime bucketStart, PANStatus status, String errorCode) {
+        super(bucketStart, status, errorCode);
+    }
+
+    @Override
+    public Long getId() { return id; }
+}
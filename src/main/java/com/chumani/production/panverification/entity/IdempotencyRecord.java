@@ -0,0 +1,78 @@
+package com.chumani.production.panverification.entity;
+
+import java.time.LocalDateTime;
+
+import com.chumani.production.panverification.enums.IdempotencyState;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Idempotency Record Entity
+ * A client-supplied Idempotency-Key: claimed by the first request carrying it, then holding that
+ * request's response for replay until it expires. Rows are inserted by IdempotencyService's claim,
+ * never through JPA.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+    @Index(name = "idx_idempotency_keys_expires_at", columnList = "expiresAt")
+})
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String key;
+
+    // SHA-256 of the request the key was first used with, hex
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state", nullable = false, length = 20)
+    private IdempotencyState state;
+
+    @Column(name = "status_code")
+    private Integer statusCode;
+
+    @Column(name = "location", length = 255)
+    private String location;
+
+    // Stored PANVerificationResponse, JSON
+    @Column(name = "response_body", length = 4000)
+    private String responseBody;
+
+    @Column(name = "claimed_at", nullable = false)
+    private LocalDateTime claimedAt;
+
+    // The claiming request's deadline plus the lease; a claim still in progress after it may be taken over
+    @Column(name = "lease_expires_at", nullable = false)
+    private LocalDateTime leaseExpiresAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    protected IdempotencyRecord() {}
+
+    public String getKey() { return key; }
+
+    public String getRequestHash() { return requestHash; }
+
+    public IdempotencyState getState() { return state; }
+
+    public Integer getStatusCode() { return statusCode; }
+
+    public String getLocation() { return location; }
+
+    public String getResponseBody() { return responseBody; }
+
+    public LocalDateTime getClaimedAt() { return claimedAt; }
+
+    public LocalDateTime getLeaseExpiresAt() { return leaseExpiresAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+}
@@ -3,6 +3,8 @@ package com.chumani.production.panverification.entity;
 import java.time.LocalDateTime;
 
 import com.chumani.production.panverification.enums.PANStatus;
+import com.chumani.production.panverification.util.PanCodec;
+import com.chumani.production.panverification.validation.ValidPan;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -13,9 +15,9 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Pattern;
 
 /**
  * PAN Verification Record Entity
@@ -23,23 +25,35 @@ import jakarta.validation.constraints.Pattern;
  */
 @Entity
 @Table(name = "pan_verification_records", indexes = {
-    @Index(name = "idx_pan_number", columnList = "panNumber"),
+    @Index(name = "idx_pan_key", columnList = "panKey"),
     @Index(name = "idx_reference_number", columnList = "referenceNumber"),
     @Index(name = "idx_transaction_id", columnList = "transactionId"),
-    @Index(name = "idx_created_at", columnList = "createdAt")
+    @Index(name = "idx_created_at", columnList = "createdAt"),
+    // Rollup job scans (watermark, now - settle lag] by completion time
+    @Index(name = "idx_response_timestamp", columnList = "responseTimestamp"),
+    // Keyset pagination of a PAN's history
+    @Index(name = "idx_pan_key_created_at_id", columnList = "panKey, createdAt, id")
 })
 public class PANVerificationRecord {
 
+    public static final int ERROR_MESSAGE_MAX_LENGTH = 500;
+
+    // Sequence ids (pooled, 50 per round trip) keep inserts JDBC-batchable; IDENTITY would not
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pan_verification_record_id")
+    @SequenceGenerator(name = "pan_verification_record_id", sequenceName = "pan_verification_records_seq",
+                       allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "PAN number is required")
-    @Pattern(regexp = "^[A-Z]{3}P[A-Z][0-9]{4}[A-Z]$",
-             message = "PAN format must be: 3 alphabets + P + 1 alphabet + 4 digits + 1 alphabet")
+    @ValidPan
     @Column(name = "pan_number", nullable = false, length = 10)
     private String panNumber;
 
+    // PanCodec key of panNumber: PAN lookups compare and index 8-byte keys instead of strings
+    @Column(name = "pan_key", nullable = false)
+    private Long panKey;
+
     @NotBlank(message = "Name is required")
     @Column(name = "name", nullable = false)
     private String name;
@@ -80,18 +94,31 @@ public class PANVerificationRecord {
     @Column(name = "error_code")
     private String errorCode;
 
-    @Column(name = "error_message", length = 500)
+    @Column(name = "error_message", length = ERROR_MESSAGE_MAX_LENGTH)
     private String errorMessage;
 
     @Column(name = "retry_count", nullable = false)
     private Integer retryCount = 0;
 
+    // Result not from a live Protean call (result cache, or last known result while the circuit is open)
+    @Column(name = "served_from_cache", nullable = false)
+    private Boolean servedFromCache = false;
+
+    // Async records only: the instance queueing or completing the pending record, and until when.
+    // Recovery on any instance takes a pending record only once its claim has lapsed
+    @Column(name = "claimed_by", length = 36)
+    private String claimedBy;
+
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+
     // Constructors
     public PANVerificationRecord() {}
 
     public PANVerificationRecord(String panNumber, String name, PANStatus status,
                                Boolean aadhaarLinked, String referenceNumber, String transactionId) {
         this.panNumber = panNumber;
+        this.panKey = PanCodec.encode(panNumber);
         this.name = name;
         this.status = status;
         this.aadhaarLinked = aadhaarLinked;
@@ -105,7 +132,12 @@ public class PANVerificationRecord {
     public void setId(Long id) { this.id = id; }
 
     public String getPanNumber() { return panNumber; }
-    public void setPanNumber(String panNumber) { this.panNumber = panNumber; }
+    public void setPanNumber(String panNumber) {
+        this.panNumber = panNumber;
+        this.panKey = PanCodec.encode(panNumber);
+    }
+
+    public Long getPanKey() { return panKey; }
 
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
@@ -149,10 +181,18 @@ public class PANVerificationRecord {
     public Integer getRetryCount() { return retryCount; }
     public void setRetryCount(Integer retryCount) { this.retryCount = retryCount; }
 
+    public Boolean getServedFromCache() { return servedFromCache; }
+    public void setServedFromCache(Boolean servedFromCache) { this.servedFromCache = servedFromCache; }
+
+    public String getClaimedBy() { return claimedBy; }
+    public void setClaimedBy(String claimedBy) { this.claimedBy = claimedBy; }
+
+    public LocalDateTime getClaimedUntil() { return claimedUntil; }
+    public void setClaimedUntil(LocalDateTime claimedUntil) { this.claimedUntil = claimedUntil; }
+
     // Business methods for PII masking
     public String getMaskedPAN() {
-        if (panNumber == null || panNumber.length() != 10) return "INVALID_PAN";
-        return "XXXX" + panNumber.substring(4, 8) + panNumber.substring(9);
+        return panKey != null ? PanCodec.mask(panKey) : PanCodec.INVALID_MASK;
     }
 
     public String getMaskedName() {
@@ -0,0 +1,45 @@
+package com.chumani.production.panverification.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Rollup Watermark Entity
+ * High-water mark of a rollup job: records completed up to and including this time are folded in
+ */
+@Entity
+@Table(name = "rollup_watermarks")
+public class RollupWatermark {
+
+    @Id
+    @Column(name = "name", length = 50)
+    private String name;
+
+    @Column(name = "watermark", nullable = false)
+    private LocalDateTime watermark;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    protected RollupWatermark() {}
+
+    public RollupWatermark(String name, LocalDateTime watermark) {
+        this.name = name;
+        this.watermark = watermark;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public String getName() { return name; }
+
+    public LocalDateTime getWatermark() { return watermark; }
+    public void setWatermark(LocalDateTime watermark) {
+        this.watermark = watermark;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -0,0 +1,76 @@
+package com.chumani.production.panverification.entity;
+
+import java.time.LocalDateTime;
+
+import com.chumani.production.panverification.enums.PANStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.MappedSuperclass;
+
+/**
+ * Verification Rollup
+ * Pre-aggregated counts of completed verifications for one time bucket and outcome:
+ * a PANStatus for successful verifications, an error code for failed ones.
+ * Latencies are upstream round trips, responseTimestamp - requestTimestamp.
+ */
+@MappedSuperclass
+public abstract class VerificationRollup {
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    // Null for failed verifications (their stored status is only a placeholder)
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private PANStatus status;
+
+    @Column(name = "error_code")
+    private String errorCode;
+
+    @Column(name = "verification_count", nullable = false)
+    private long verificationCount;
+
+    @Column(name = "aadhaar_linked_count", nullable = false)
+    private long aadhaarLinkedCount;
+
+    @Column(name = "latency_sum_ms", nullable = false)
+    private long latencySumMs;
+
+    @Column(name = "latency_max_ms", nullable = false)
+    private long latencyMaxMs;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    protected VerificationRollup() {}
+
+    protected VerificationRollup(LocalDateTime bucketStart, PANStatus status, String errorCode) {
+        this.bucketStart = bucketStart;
+        this.status = status;
+        this.errorCode = errorCode;
+    }
+
+    /**
+     * Fold in a group of newly completed verifications
+     */
+    public void add(long count, long aadhaarLinked, long latencySumMs, long latencyMaxMs) {
+        this.verificationCount += count;
+        this.aadhaarLinkedCount += aadhaarLinked;
+        this.latencySumMs += latencySumMs;
+        this.latencyMaxMs = Math.max(this.latencyMaxMs, latencyMaxMs);
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public abstract Long getId();
+
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public PANStatus getStatus() { return status; }
+    public String getErrorCode() { return errorCode; }
+    public long getVerificationCount() { return verificationCount; }
+    public long getAadhaarLinkedCount() { return aadhaarLinkedCount; }
+    public long getLatencySumMs() { return latencySumMs; }
+    public long getLatencyMaxMs() { return latencyMaxMs; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -0,0 +1,36 @@
+package com.chumani.production.panverification.enums;
+
+/**
+ * Audit Entry Type Enumeration
+ * Kinds of audit journal entries; the code is what is stored on disk
+ */
+public enum AuditEntryType {
+    REQUEST(1, "Verification accepted"),
+    RESPONSE(2, "Verification completed"),
+    ERROR(3, "Verification completed with an error");
+
+    private final int code;
+    private final String description;
+
+    AuditEntryType(int code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public static AuditEntryType fromCode(int code) {
+        for (AuditEntryType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown audit entry type: " + code);
+    }
+}
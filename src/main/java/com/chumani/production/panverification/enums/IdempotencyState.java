@@ -0,0 +1,10 @@
+package com.chumani.production.panverification.enums;
+
+/**
+ * Idempotency State Enumeration
+ * An Idempotency-Key is claimed by the request running it, then holds that request's response
+ */
+public enum IdempotencyState {
+    IN_PROGRESS,
+    COMPLETED
+}
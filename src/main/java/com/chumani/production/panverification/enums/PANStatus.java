@@ -8,7 +8,9 @@ public enum PANStatus {
     ACTIVE("Active", "PAN is active and valid"),
     INACTIVE("Inactive", "PAN is inactive"),
     DEACTIVATED("Deactivated", "PAN has been deactivated"),
-    CANCELLED("Cancelled", "PAN has been cancelled");
+    CANCELLED("Cancelled", "PAN has been cancelled"),
+    // Not returned by Protean: reported while a verification has no upstream response yet
+    PENDING("Pending", "PAN verification is in progress");
 
     private final String displayName;
     private final String description;
@@ -0,0 +1,433 @@
+package com.chumani.production.panverification.journal;
+
+import com.chumani.production.panverification.dto.AuditEntry;
+import com.chumani.production.panverification.enums.AuditEntryType;
+import com.chumani.production.panverification.enums.PANStatus;
+import com.chumani.production.panverification.util.PanCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Audit Journal
+ * Append-only binary audit trail of verifications, kept apart from application logs.
+ * Request threads publish entries into a lock-free ring buffer (allocation-free, never
+ * blocking: a full ring drops the entry and counts it); one writer thread copies them into
+ * a memory-mapped segment file and rolls to a new segment when it is full.
+ *
+ * Mapped writes reach the page cache immediately, so entries survive a process crash; they
+ * are forced to disk every force-interval and when a segment is closed, so a host crash
+ * loses at most that interval. A restart continues the last segment while it has room. Old
+ * segments are deleted beyond retention.max-segments or retention.max-age, checked at startup
+ * and whenever a segment is opened. Only masked PANs are stored.
+ * See AuditJournalFormat for the layout, AuditJournalCli for reading segments offline.
+ */
+@Component
+public class AuditJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditJournal.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${pan.verification.audit.journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${pan.verification.audit.journal.directory:./audit}")
+    private String directoryName;
+
+    @Value("${pan.verification.audit.journal.segment-size:64MB}")
+    private DataSize segmentSize;
+
+    // Power of two
+    @Value("${pan.verification.audit.journal.ring-capacity:16384}")
+    private int ringCapacity;
+
+    @Value("${pan.verification.audit.journal.force-interval-ms:1000}")
+    private long forceIntervalMs;
+
+    @Value("${pan.verification.audit.journal.max-scan-results:1000}")
+    private int maxScanResults;
+
+    @Value("${pan.verification.audit.journal.shutdown-timeout:PT5S}")
+    private Duration shutdownTimeout;
+
+    // 0 disables either limit
+    @Value("${pan.verification.audit.journal.retention.max-segments:32}")
+    private int maxSegments;
+
+    @Value("${pan.verification.audit.journal.retention.max-age:P30D}")
+    private Duration maxAge;
+
+    private Path directory;
+    private AuditRingBuffer ring;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    private Counter appendedEntries;
+    private Counter droppedEntries;
+    private Counter failedEntries;
+    private Counter openedSegments;
+    private Counter deletedSegments;
+
+    // Writer thread state
+    private final byte[] entryBytes = new byte[AuditJournalFormat.ENTRY_SIZE];
+    private final ByteBuffer entry = ByteBuffer.wrap(entryBytes).order(ByteOrder.LITTLE_ENDIAN);
+    private final char[] maskedPan = new char[PanCodec.MASKED_LENGTH];
+    private final CharBuffer maskedPanChars = CharBuffer.wrap(maskedPan);
+    private final CRC32C crc = new CRC32C();
+    private MappedByteBuffer segment;
+    private int segmentCapacity;
+    private int position;
+    private long segmentNumber;
+    private long minTimestamp;
+    private long maxTimestamp;
+    private long segmentEntries;
+    private boolean dirty;
+    private boolean failing;
+
+    @PostConstruct
+    void start() throws IOException {
+        appendedEntries = Counter.builder("pan.audit.journal.appended")
+            .description("Entries written to the audit journal")
+            .register(meterRegistry);
+        droppedEntries = Counter.builder("pan.audit.journal.dropped")
+            .description("Audit entries dropped because the journal ring buffer was full")
+            .register(meterRegistry);
+        failedEntries = Counter.builder("pan.audit.journal.failed")
+            .description("Audit entries the journal writer could not write")
+            .register(meterRegistry);
+        openedSegments = Counter.builder("pan.audit.journal.segments")
+            .description("Audit journal segments opened")
+            .register(meterRegistry);
+        deletedSegments = Counter.builder("pan.audit.journal.segments.deleted")
+            .description("Audit journal segments deleted by retention")
+            .register(meterRegistry);
+
+        directory = Paths.get(directoryName);
+        if (!enabled) {
+            return;
+        }
+        long bytes = segmentSize.toBytes();
+        if (bytes < AuditJournalFormat.HEADER_SIZE + AuditJournalFormat.ENTRY_SIZE || bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Audit journal segment size out of range: " + segmentSize);
+        }
+        segmentCapacity = AuditJournalFormat.HEADER_SIZE + (int) ((bytes - AuditJournalFormat.HEADER_SIZE)
+            / AuditJournalFormat.ENTRY_SIZE * AuditJournalFormat.ENTRY_SIZE);
+
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            segmentNumber = files.mapToLong(file -> AuditJournalFormat.segmentNumber(file.getFileName().toString()))
+                .max().orElse(0);
+        }
+        if (segmentNumber > 0) {
+            resume(directory.resolve(AuditJournalFormat.segmentName(segmentNumber)));
+        }
+        applyRetention();
+        ring = new AuditRingBuffer(ringCapacity);
+        meterRegistry.gauge("pan.audit.journal.ring.depth", ring, AuditRingBuffer::size);
+
+        running = true;
+        writerThread = new Thread(this::runWriter, "pan-audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        logger.info("Audit journal writing to {}", directory.toAbsolutePath());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        // The writer drains what is already published, forces the segment and exits
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(shutdownTimeout.toMillis());
+        if (writerThread.isAlive()) {
+            logger.error("Audit journal writer did not finish within {}, {} entries not written",
+                        shutdownTimeout, ring.size());
+        }
+    }
+
+    /**
+     * Publish an entry for the writer; false if the journal is off or the ring is full.
+     * Absent fields are null (status, Aadhaar link, retry count, cache flag, error code)
+     * or -1 (duration, and panKey for an invalid PAN).
+     */
+    public boolean append(AuditEntryType type, long timestampMillis, String traceId, String referenceNumber,
+                          long panKey, PANStatus status, Boolean aadhaarLinked, Integer retryCount,
+                          Boolean servedFromCache, long durationMicros, String errorCode) {
+        if (!running) {
+            return false;
+        }
+        long claimed = ring.claim();
+        if (claimed < 0) {
+            droppedEntries.increment();
+            return false;
+        }
+        AuditRingBuffer.Slot slot = ring.slot(claimed);
+        slot.type = type.getCode();
+        slot.timestampMillis = timestampMillis;
+        slot.durationMicros = (int) Math.min(durationMicros, Integer.MAX_VALUE);
+        slot.status = status != null ? (byte) status.ordinal() : AuditJournalFormat.ABSENT;
+        slot.aadhaarLinked = toByte(aadhaarLinked);
+        slot.retryCount = retryCount != null ? (byte) Math.min(retryCount, Byte.MAX_VALUE) : AuditJournalFormat.ABSENT;
+        slot.servedFromCache = toByte(servedFromCache);
+        slot.panKey = panKey;
+        slot.traceId = traceId;
+        slot.referenceNumber = referenceNumber;
+        slot.errorCode = errorCode;
+        ring.publish(claimed);
+        return true;
+    }
+
+    /**
+     * Entries for a trace id and/or time range (either bound may be null), oldest first
+     */
+    public List<AuditEntry> scan(String traceId, LocalDateTime from, LocalDateTime to,
+                                 int limit) throws IOException {
+        return new AuditJournalReader(directory).scan(traceId,
+            from != null ? AuditJournalReader.toEpochMillis(from) : Long.MIN_VALUE,
+            to != null ? AuditJournalReader.toEpochMillis(to) : Long.MAX_VALUE,
+            Math.min(limit, maxScanResults));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMaxScanResults() {
+        return maxScanResults;
+    }
+
+    private void runWriter() {
+        long forceIntervalNanos = TimeUnit.MILLISECONDS.toNanos(forceIntervalMs);
+        long lastForce = System.nanoTime();
+        while (true) {
+            // Read before draining, so everything published before stop() is written
+            boolean stopping = !running;
+            int written = 0;
+            AuditRingBuffer.Slot slot;
+            while ((slot = ring.peek()) != null) {
+                write(slot);
+                ring.release();
+                written++;
+            }
+            if (stopping) {
+                break;
+            }
+            long now = System.nanoTime();
+            if (dirty && now - lastForce >= forceIntervalNanos) {
+                force();
+                lastForce = now;
+            }
+            if (written == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        force();
+        logger.info("Audit journal writer stopped");
+    }
+
+    private void write(AuditRingBuffer.Slot slot) {
+        try {
+            if (segment == null || position + AuditJournalFormat.ENTRY_SIZE > segmentCapacity) {
+                roll();
+            }
+        } catch (IOException | RuntimeException e) {
+            failedEntries.increment();
+            if (!failing) {
+                failing = true;
+                logger.error("Could not open audit journal segment in {}: {}", directory, e.getMessage());
+            }
+            return;
+        }
+        failing = false;
+
+        Arrays.fill(entryBytes, (byte) 0);
+        entry.putShort(AuditJournalFormat.ENTRY_VERSION, (short) AuditJournalFormat.VERSION);
+        entry.putLong(AuditJournalFormat.TIMESTAMP, slot.timestampMillis);
+        entry.putInt(AuditJournalFormat.DURATION_MICROS, slot.durationMicros);
+        entry.put(AuditJournalFormat.STATUS, slot.status);
+        entry.put(AuditJournalFormat.AADHAAR_LINKED, slot.aadhaarLinked);
+        entry.put(AuditJournalFormat.RETRY_COUNT, slot.retryCount);
+        entry.put(AuditJournalFormat.SERVED_FROM_CACHE, slot.servedFromCache);
+        AuditJournalFormat.putAscii(entry, AuditJournalFormat.TRACE_ID, AuditJournalFormat.TRACE_ID_LENGTH,
+            slot.traceId);
+        AuditJournalFormat.putAscii(entry, AuditJournalFormat.REFERENCE_NUMBER,
+            AuditJournalFormat.REFERENCE_NUMBER_LENGTH, slot.referenceNumber);
+        if (slot.panKey == PanCodec.INVALID) {
+            AuditJournalFormat.putAscii(entry, AuditJournalFormat.MASKED_PAN, AuditJournalFormat.MASKED_PAN_LENGTH,
+                PanCodec.INVALID_MASK);
+        } else {
+            PanCodec.mask(slot.panKey, maskedPan, 0);
+            AuditJournalFormat.putAscii(entry, AuditJournalFormat.MASKED_PAN, AuditJournalFormat.MASKED_PAN_LENGTH,
+                maskedPanChars);
+        }
+        AuditJournalFormat.putAscii(entry, AuditJournalFormat.ERROR_CODE, AuditJournalFormat.ERROR_CODE_LENGTH,
+            slot.errorCode);
+        entry.putInt(AuditJournalFormat.CRC, AuditJournalFormat.checksum(crc, entryBytes, 0));
+
+        // Type last: a reader treats a zero type as the end of the segment
+        segment.put(position + AuditJournalFormat.ENTRY_VERSION, entryBytes, AuditJournalFormat.ENTRY_VERSION,
+            AuditJournalFormat.ENTRY_SIZE - AuditJournalFormat.ENTRY_VERSION);
+        segment.putShort(position + AuditJournalFormat.TYPE, (short) slot.type);
+        position += AuditJournalFormat.ENTRY_SIZE;
+
+        minTimestamp = Math.min(minTimestamp, slot.timestampMillis);
+        maxTimestamp = Math.max(maxTimestamp, slot.timestampMillis);
+        segmentEntries++;
+        segment.putLong(AuditJournalFormat.HEADER_MIN_TIMESTAMP, minTimestamp);
+        segment.putLong(AuditJournalFormat.HEADER_MAX_TIMESTAMP, maxTimestamp);
+        segment.putLong(AuditJournalFormat.HEADER_ENTRY_COUNT, segmentEntries);
+        dirty = true;
+        appendedEntries.increment();
+    }
+
+    // Close the current segment (if any) and map a new, preallocated one
+    private void roll() throws IOException {
+        force();
+        segment = null;
+        Path file = directory.resolve(AuditJournalFormat.segmentName(segmentNumber + 1));
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentCapacity);
+        }
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        minTimestamp = Long.MAX_VALUE;
+        maxTimestamp = Long.MIN_VALUE;
+        segmentEntries = 0;
+        mapped.putLong(0, AuditJournalFormat.MAGIC);
+        mapped.putInt(AuditJournalFormat.HEADER_VERSION, AuditJournalFormat.VERSION);
+        mapped.putInt(AuditJournalFormat.HEADER_ENTRY_SIZE, AuditJournalFormat.ENTRY_SIZE);
+        mapped.putLong(AuditJournalFormat.HEADER_CREATED_AT, System.currentTimeMillis());
+        mapped.putLong(AuditJournalFormat.HEADER_MIN_TIMESTAMP, minTimestamp);
+        mapped.putLong(AuditJournalFormat.HEADER_MAX_TIMESTAMP, maxTimestamp);
+        segmentNumber++;
+        segment = mapped;
+        position = AuditJournalFormat.HEADER_SIZE;
+        openedSegments.increment();
+        logger.info("Opened audit journal segment {}", file.getFileName());
+        applyRetention();
+    }
+
+    // Map the last segment again if it is the configured size and has room; otherwise the first write rolls
+    private void resume(Path file) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() != segmentCapacity) {
+                return;
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentCapacity);
+        }
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        if (mapped.getLong(0) != AuditJournalFormat.MAGIC
+                || mapped.getInt(AuditJournalFormat.HEADER_VERSION) != AuditJournalFormat.VERSION
+                || mapped.getInt(AuditJournalFormat.HEADER_ENTRY_SIZE) != AuditJournalFormat.ENTRY_SIZE) {
+            return;
+        }
+
+        // Recounted from the entries: after a host crash the header can trail them
+        int end = AuditJournalFormat.HEADER_SIZE;
+        long entries = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        while (end + AuditJournalFormat.ENTRY_SIZE <= segmentCapacity
+                && mapped.getShort(end + AuditJournalFormat.TYPE) != 0) {
+            long timestamp = mapped.getLong(end + AuditJournalFormat.TIMESTAMP);
+            min = Math.min(min, timestamp);
+            max = Math.max(max, timestamp);
+            entries++;
+            end += AuditJournalFormat.ENTRY_SIZE;
+        }
+        if (end + AuditJournalFormat.ENTRY_SIZE > segmentCapacity) {
+            return;
+        }
+        mapped.putLong(AuditJournalFormat.HEADER_MIN_TIMESTAMP, min);
+        mapped.putLong(AuditJournalFormat.HEADER_MAX_TIMESTAMP, max);
+        mapped.putLong(AuditJournalFormat.HEADER_ENTRY_COUNT, entries);
+        minTimestamp = min;
+        maxTimestamp = max;
+        segmentEntries = entries;
+        position = end;
+        segment = mapped;
+        logger.info("Resuming audit journal segment {} after {} entries", file.getFileName(), entries);
+    }
+
+    // Delete the oldest segments beyond max-segments (counting the current one) and those last written before max-age
+    private void applyRetention() {
+        List<Path> older;
+        try (Stream<Path> files = Files.list(directory)) {
+            older = files
+                .filter(file -> {
+                    long number = AuditJournalFormat.segmentNumber(file.getFileName().toString());
+                    return number >= 0 && number < segmentNumber;
+                })
+                .sorted(Comparator.comparingLong(file -> AuditJournalFormat.segmentNumber(file.getFileName().toString())))
+                .toList();
+        } catch (IOException e) {
+            logger.warn("Could not list audit journal segments in {}: {}", directory, e.getMessage());
+            return;
+        }
+        int excess = maxSegments > 0 ? older.size() + 1 - maxSegments : 0;
+        long cutoff = maxAge.isZero() ? Long.MIN_VALUE : System.currentTimeMillis() - maxAge.toMillis();
+        for (int i = 0; i < older.size(); i++) {
+            Path file = older.get(i);
+            try {
+                if (i < excess || Files.getLastModifiedTime(file).toMillis() < cutoff) {
+                    Files.deleteIfExists(file);
+                    deletedSegments.increment();
+                    logger.info("Deleted audit journal segment {}", file.getFileName());
+                }
+            } catch (IOException e) {
+                logger.warn("Could not delete audit journal segment {}: {}", file.getFileName(), e.getMessage());
+            }
+        }
+    }
+
+    private void force() {
+        if (segment == null || !dirty) {
+            return;
+        }
+        dirty = false;
+        try {
+            segment.force(0, position);
+        } catch (RuntimeException e) {
+            logger.error("Could not force audit journal segment: {}", e.getMessage());
+        }
+    }
+
+    private static byte toByte(Boolean value) {
+        return value == null ? AuditJournalFormat.ABSENT : (byte) (value ? 1 : 0);
+    }
+}
@@ -0,0 +1,66 @@
+package com.chumani.production.panverification.journal;
+
+import com.chumani.production.panverification.dto.AuditEntry;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Audit Journal CLI
+ * Prints matching journal entries as JSON lines without starting the application, e.g.
+ * <pre>
+ * java -cp pan-verification-service.jar -Dloader.main=com.chumani.production.panverification.journal.AuditJournalCli \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher --dir ./audit --trace-id TRACE-0A8AG386YPW01
+ * </pre>
+ * Options: --dir (default ./audit), --trace-id, --from and --to (ISO local date-time), --limit (default 1000).
+ */
+public final class AuditJournalCli {
+
+    private AuditJournalCli() {}
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get("./audit");
+        String traceId = null;
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+        int limit = 1000;
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                usage("Missing value for " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--dir" -> directory = Paths.get(value);
+                case "--trace-id" -> traceId = value;
+                case "--from" -> from = AuditJournalReader.toEpochMillis(LocalDateTime.parse(value));
+                case "--to" -> to = AuditJournalReader.toEpochMillis(LocalDateTime.parse(value));
+                case "--limit" -> limit = Integer.parseInt(value);
+                default -> usage("Unknown option " + option);
+            }
+        }
+
+        ObjectWriter writer = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build()
+            .writer();
+        List<AuditEntry> entries = new AuditJournalReader(directory).scan(traceId, from, to, limit);
+        PrintStream out = System.out;
+        for (AuditEntry entry : entries) {
+            out.println(writer.writeValueAsString(entry));
+        }
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: AuditJournalCli [--dir DIR] [--trace-id ID] [--from ISO] [--to ISO] [--limit N]");
+        System.exit(2);
+    }
+}
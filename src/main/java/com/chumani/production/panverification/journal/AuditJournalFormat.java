@@ -0,0 +1,115 @@
+package com.chumani.production.panverification.journal;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+/**
+ * Audit Journal Format
+ * On-disk layout of journal segments. A segment is a 64-byte header followed by fixed-size
+ * 128-byte entries, little-endian, written in order; the first entry whose type is 0 marks
+ * the end of the written part (segments are preallocated, so the rest is zeros).
+ *
+ * Header: magic "PANAUDIT" (8), version (4), entry size (4), created at (8, epoch ms),
+ * lowest and highest entry timestamp (8 + 8) and entry count (8).
+ *
+ * Entry: type (2), version (2), CRC32C of bytes 8-127 (4), timestamp (8, epoch ms),
+ * duration in microseconds (4), status, Aadhaar link, retry count and served-from-cache
+ * (1 each, -1 when absent), then fixed-width ASCII fields padded with zeros: trace id (40),
+ * reference number (24), masked PAN (12) and error code (28). Longer values are truncated.
+ * Version 2 widened the trace id for caller-supplied ids; version 1 segments are not read.
+ */
+final class AuditJournalFormat {
+
+    static final long MAGIC = 0x54494455_414E4150L; // "PANAUDIT" read little-endian
+    static final int VERSION = 2;
+
+    static final int HEADER_SIZE = 64;
+    static final int HEADER_VERSION = 8;
+    static final int HEADER_ENTRY_SIZE = 12;
+    static final int HEADER_CREATED_AT = 16;
+    static final int HEADER_MIN_TIMESTAMP = 24;
+    static final int HEADER_MAX_TIMESTAMP = 32;
+    static final int HEADER_ENTRY_COUNT = 40;
+
+    static final int ENTRY_SIZE = 128;
+    static final int TYPE = 0;
+    static final int ENTRY_VERSION = 2;
+    static final int CRC = 4;
+    static final int CRC_START = 8;
+    static final int TIMESTAMP = 8;
+    static final int DURATION_MICROS = 16;
+    static final int STATUS = 20;
+    static final int AADHAAR_LINKED = 21;
+    static final int RETRY_COUNT = 22;
+    static final int SERVED_FROM_CACHE = 23;
+    static final int TRACE_ID = 24;
+    static final int TRACE_ID_LENGTH = 40;
+    static final int REFERENCE_NUMBER = 64;
+    static final int REFERENCE_NUMBER_LENGTH = 24;
+    static final int MASKED_PAN = 88;
+    static final int MASKED_PAN_LENGTH = 12;
+    static final int ERROR_CODE = 100;
+    static final int ERROR_CODE_LENGTH = 28;
+
+    static final byte ABSENT = -1;
+
+    static final String SEGMENT_PREFIX = "audit-";
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    private AuditJournalFormat() {}
+
+    static String segmentName(long number) {
+        return String.format("%s%012d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Segment number from a file name, or -1 if it is not a segment
+     */
+    static long segmentNumber(String fileName) {
+        if (!fileName.startsWith(SEGMENT_PREFIX) || !fileName.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(fileName, SEGMENT_PREFIX.length(),
+                fileName.length() - SEGMENT_SUFFIX.length(), 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * CRC32C of an entry's bytes after the CRC field
+     */
+    static int checksum(CRC32C crc, byte[] entries, int offset) {
+        crc.reset();
+        crc.update(entries, offset + CRC_START, ENTRY_SIZE - CRC_START);
+        return (int) crc.getValue();
+    }
+
+    // ASCII only; other characters become '?'. The field must already be zeroed.
+    static void putAscii(ByteBuffer entry, int offset, int length, CharSequence value) {
+        if (value == null) {
+            return;
+        }
+        int count = Math.min(length, value.length());
+        for (int i = 0; i < count; i++) {
+            char c = value.charAt(i);
+            entry.put(offset + i, (byte) (c < 128 ? c : '?'));
+        }
+    }
+
+    static String getAscii(ByteBuffer entry, int offset, int length) {
+        int end = 0;
+        while (end < length && entry.get(offset + end) != 0) {
+            end++;
+        }
+        if (end == 0) {
+            return null;
+        }
+        char[] chars = new char[end];
+        for (int i = 0; i < end; i++) {
+            chars[i] = (char) entry.get(offset + i);
+        }
+        return new String(chars);
+    }
+}
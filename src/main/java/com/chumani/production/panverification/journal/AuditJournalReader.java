@@ -0,0 +1,180 @@
+package com.chumani.production.panverification.journal;
+
+import com.chumani.production.panverification.dto.AuditEntry;
+import com.chumani.production.panverification.enums.AuditEntryType;
+import com.chumani.production.panverification.enums.PANStatus;
+import com.chumani.production.panverification.service.TraceService;
+import com.chumani.production.panverification.util.SnowflakeIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Audit Journal Reader
+ * Scans journal segments in order for entries matching a trace id and/or a time range.
+ * Segments whose header timestamp range cannot match are skipped without reading entries;
+ * our own trace ids are Snowflake ids, so a lookup by one also skips segments older than it.
+ * Safe to run against the segment being written: it stops at the first unwritten entry.
+ * Entries that fail their checksum are skipped.
+ */
+final class AuditJournalReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditJournalReader.class);
+
+    private static final int ENTRIES_PER_READ = 512;
+
+    // Entries can be stamped slightly before their trace id (e.g. after a clock step back)
+    private static final long TRACE_CLOCK_SLACK_MILLIS = 60_000;
+
+    private final Path directory;
+
+    AuditJournalReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Up to limit entries with the trace id (if not null) stamped in [fromMillis, toMillis], oldest segment first
+     */
+    List<AuditEntry> scan(String traceId, long fromMillis, long toMillis, int limit) throws IOException {
+        List<AuditEntry> entries = new ArrayList<>();
+        if (limit <= 0 || !Files.isDirectory(directory)) {
+            return entries;
+        }
+        long notBefore = fromMillis;
+        // Caller-supplied trace ids carry no timestamp
+        if (traceId != null && traceId.startsWith(TraceService.TRACE_PREFIX)) {
+            long id = SnowflakeIdGenerator.decode(traceId, TraceService.TRACE_PREFIX.length());
+            if (id >= 0) {
+                notBefore = Math.max(notBefore, SnowflakeIdGenerator.timestampMillis(id) - TRACE_CLOCK_SLACK_MILLIS);
+            }
+        }
+
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files
+                .filter(file -> AuditJournalFormat.segmentNumber(file.getFileName().toString()) >= 0)
+                .sorted(Comparator.comparingLong(file -> AuditJournalFormat.segmentNumber(file.getFileName().toString())))
+                .toList();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(AuditJournalFormat.ENTRY_SIZE * ENTRIES_PER_READ)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        CRC32C crc = new CRC32C();
+        for (Path segment : segments) {
+            if (entries.size() >= limit) {
+                break;
+            }
+            try {
+                scanSegment(segment, buffer, crc, traceId, notBefore, fromMillis, toMillis, limit, entries);
+            } catch (NoSuchFileException e) {
+                // Removed while scanning
+            }
+        }
+        return entries;
+    }
+
+    private void scanSegment(Path segment, ByteBuffer buffer, CRC32C crc, String traceId, long notBefore,
+                             long fromMillis, long toMillis, int limit, List<AuditEntry> entries) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer.clear().limit(AuditJournalFormat.HEADER_SIZE);
+            if (channel.read(buffer, 0) < AuditJournalFormat.HEADER_SIZE
+                    || buffer.getLong(0) != AuditJournalFormat.MAGIC
+                    || buffer.getInt(AuditJournalFormat.HEADER_ENTRY_SIZE) != AuditJournalFormat.ENTRY_SIZE) {
+                logger.warn("Skipping {}: not an audit journal segment", segment.getFileName());
+                return;
+            }
+            if (buffer.getInt(AuditJournalFormat.HEADER_VERSION) != AuditJournalFormat.VERSION) {
+                logger.warn("Skipping {}: journal format version {}", segment.getFileName(),
+                           buffer.getInt(AuditJournalFormat.HEADER_VERSION));
+                return;
+            }
+            long minTimestamp = buffer.getLong(AuditJournalFormat.HEADER_MIN_TIMESTAMP);
+            long maxTimestamp = buffer.getLong(AuditJournalFormat.HEADER_MAX_TIMESTAMP);
+            if (buffer.getLong(AuditJournalFormat.HEADER_ENTRY_COUNT) == 0
+                    || maxTimestamp < notBefore || minTimestamp > toMillis) {
+                return;
+            }
+
+            long offset = AuditJournalFormat.HEADER_SIZE;
+            while (true) {
+                buffer.clear();
+                int read = channel.read(buffer, offset);
+                int complete = read <= 0 ? 0 : read / AuditJournalFormat.ENTRY_SIZE;
+                if (complete == 0) {
+                    return;
+                }
+                byte[] bytes = buffer.array();
+                for (int i = 0; i < complete; i++) {
+                    int base = i * AuditJournalFormat.ENTRY_SIZE;
+                    int type = buffer.getShort(base + AuditJournalFormat.TYPE);
+                    if (type == 0) {
+                        return;
+                    }
+                    if (buffer.getInt(base + AuditJournalFormat.CRC) != AuditJournalFormat.checksum(crc, bytes, base)) {
+                        logger.warn("Skipping corrupt entry at offset {} of {}",
+                                   offset + base, segment.getFileName());
+                        continue;
+                    }
+                    long timestamp = buffer.getLong(base + AuditJournalFormat.TIMESTAMP);
+                    if (timestamp < fromMillis || timestamp > toMillis) {
+                        continue;
+                    }
+                    String entryTraceId = AuditJournalFormat.getAscii(buffer, base + AuditJournalFormat.TRACE_ID,
+                        AuditJournalFormat.TRACE_ID_LENGTH);
+                    if (traceId != null && !traceId.equals(entryTraceId)) {
+                        continue;
+                    }
+                    entries.add(toEntry(buffer, base, type, timestamp, entryTraceId));
+                    if (entries.size() >= limit) {
+                        return;
+                    }
+                }
+                offset += (long) complete * AuditJournalFormat.ENTRY_SIZE;
+            }
+        }
+    }
+
+    private static AuditEntry toEntry(ByteBuffer buffer, int base, int type, long timestamp, String traceId) {
+        AuditEntryType entryType = AuditEntryType.fromCode(type);
+        byte status = buffer.get(base + AuditJournalFormat.STATUS);
+        byte retryCount = buffer.get(base + AuditJournalFormat.RETRY_COUNT);
+        long durationMicros = buffer.getInt(base + AuditJournalFormat.DURATION_MICROS);
+        return new AuditEntry(
+            entryType,
+            LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault()),
+            traceId,
+            AuditJournalFormat.getAscii(buffer, base + AuditJournalFormat.REFERENCE_NUMBER,
+                AuditJournalFormat.REFERENCE_NUMBER_LENGTH),
+            AuditJournalFormat.getAscii(buffer, base + AuditJournalFormat.MASKED_PAN,
+                AuditJournalFormat.MASKED_PAN_LENGTH),
+            status >= 0 && status < PANStatus.values().length ? PANStatus.values()[status] : null,
+            toBoolean(buffer.get(base + AuditJournalFormat.AADHAAR_LINKED)),
+            retryCount >= 0 ? Integer.valueOf(retryCount) : null,
+            toBoolean(buffer.get(base + AuditJournalFormat.SERVED_FROM_CACHE)),
+            durationMicros >= 0 ? Long.valueOf(durationMicros) : null,
+            AuditJournalFormat.getAscii(buffer, base + AuditJournalFormat.ERROR_CODE,
+                AuditJournalFormat.ERROR_CODE_LENGTH));
+    }
+
+    static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static Boolean toBoolean(byte value) {
+        return value == AuditJournalFormat.ABSENT ? null : value == 1;
+    }
+}
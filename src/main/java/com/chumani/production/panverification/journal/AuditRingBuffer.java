@@ -0,0 +1,119 @@
+package com.chumani.production.panverification.journal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Audit Ring Buffer
+ * Bounded lock-free queue from request threads to the single journal writer. Slots are
+ * preallocated and reused, so publishing an entry allocates nothing. Each slot has a
+ * sequence number saying whose turn it is: a producer claims position p by CAS on the tail
+ * once slot p's sequence is p, fills it, then sets the sequence to p + 1; the consumer reads
+ * it once the sequence is p + 1 and hands it back by setting it to p + capacity.
+ *
+ * A full ring fails the claim instead of waiting; producers never block.
+ */
+final class AuditRingBuffer {
+
+    /**
+     * One reusable entry; fields are written by the claiming producer before publish
+     */
+    static final class Slot {
+        int type;
+        long timestampMillis;
+        int durationMicros;
+        byte status;
+        byte aadhaarLinked;
+        byte retryCount;
+        byte servedFromCache;
+        long panKey;
+        String traceId;
+        String referenceNumber;
+        String errorCode;
+
+        void clear() {
+            traceId = null;
+            referenceNumber = null;
+            errorCode = null;
+        }
+    }
+
+    private final Slot[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+
+    // Written by the consumer only; volatile for size()
+    private volatile long head;
+
+    AuditRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+        }
+        slots = new Slot[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+            sequences.set(i, i);
+        }
+        mask = capacity - 1;
+    }
+
+    /**
+     * Claim the next position, or -1 if the ring is full
+     */
+    long claim() {
+        while (true) {
+            long position = tail.get();
+            long sequence = sequences.get(index(position));
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+            } else if (sequence < position) {
+                return -1;
+            }
+            // Otherwise another producer took this position first; retry with the new tail
+        }
+    }
+
+    Slot slot(long position) {
+        return slots[index(position)];
+    }
+
+    void publish(long position) {
+        sequences.setRelease(index(position), position + 1);
+    }
+
+    /**
+     * The next published slot for the consumer, or null if there is none yet
+     */
+    Slot peek() {
+        long position = head;
+        int index = index(position);
+        return sequences.getAcquire(index) == position + 1 ? slots[index] : null;
+    }
+
+    /**
+     * Hand the slot returned by peek back to producers
+     */
+    void release() {
+        long position = head;
+        int index = index(position);
+        slots[index].clear();
+        sequences.setRelease(index, position + slots.length);
+        head = position + 1;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    private int index(long position) {
+        return (int) (position & mask);
+    }
+}
@@ -0,0 +1,18 @@
+package com.chumani.production.panverification.repository;
+
+import com.chumani.production.panverification.entity.DailyVerificationRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for daily verification rollups
+ */
+@Repository
+public interface DailyVerificationRollupRepository extends JpaRepository<DailyVerificationRollup, Long> {
+
+    // Buckets starting in [from, to)
+    List<DailyVerificationRollup> findByBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(
+        LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,18 @@
+package com.chumani.production.panverification.repository;
+
+import com.chumani.production.panverification.entity.HourlyVerificationRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for hourly verification rollups
+ */
+@Repository
+public interface HourlyVerificationRollupRepository extends JpaRepository<HourlyVerificationRollup, Long> {
+
+    // Buckets starting in [from, to)
+    List<HourlyVerificationRollup> findByBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(
+        LocalDateTime from, LocalDateTime to);
+}
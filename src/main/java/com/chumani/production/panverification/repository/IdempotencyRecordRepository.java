@@ -0,0 +1,60 @@
+package com.chumani.production.panverification.repository;
+
+import com.chumani.production.panverification.entity.IdempotencyRecord;
+import com.chumani.production.panverification.enums.IdempotencyState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository for Idempotency-Key claims and stored responses
+ * All of it is read-write, so it stays on the primary: a replica could hide a fresh claim.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Transactional
+    @Query("SELECT k FROM IdempotencyRecord k WHERE k.key = :key")
+    Optional<IdempotencyRecord> findByKey(@Param("key") String key);
+
+    // Only the claim's holder completes it; a claim taken over after its lease has a new claimedAt
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord k SET k.state = :completed, k.statusCode = :statusCode, " +
+           "k.location = :location, k.responseBody = :responseBody, k.expiresAt = :expiresAt " +
+           "WHERE k.key = :key AND k.state = :inProgress AND k.claimedAt = :claimedAt")
+    int complete(@Param("key") String key, @Param("claimedAt") LocalDateTime claimedAt,
+                 @Param("statusCode") int statusCode, @Param("location") String location,
+                 @Param("responseBody") String responseBody, @Param("expiresAt") LocalDateTime expiresAt,
+                 @Param("inProgress") IdempotencyState inProgress, @Param("completed") IdempotencyState completed);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord k WHERE k.key = :key AND k.state = :inProgress AND k.claimedAt = :claimedAt")
+    int release(@Param("key") String key, @Param("claimedAt") LocalDateTime claimedAt,
+                @Param("inProgress") IdempotencyState inProgress);
+
+    // Re-claims a key whose holder has not completed it within its lease (e.g. the instance died)
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord k SET k.claimedAt = :claimedAt, k.leaseExpiresAt = :leaseExpiresAt, " +
+           "k.expiresAt = :expiresAt WHERE k.key = :key AND k.state = :inProgress AND k.leaseExpiresAt < :claimedAt")
+    int takeOver(@Param("key") String key, @Param("claimedAt") LocalDateTime claimedAt,
+                 @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt, @Param("expiresAt") LocalDateTime expiresAt,
+                 @Param("inProgress") IdempotencyState inProgress);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord k WHERE k.key = :key AND k.expiresAt < :now")
+    int deleteIfExpired(@Param("key") String key, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,14 +1,22 @@
 package com.chumani.production.panverification.repository;
 
+import com.chumani.production.panverification.dto.VerificationSummary;
 import com.chumani.production.panverification.entity.PANVerificationRecord;
 import com.chumani.production.panverification.enums.PANStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for PAN Verification Records
@@ -17,15 +25,25 @@ import java.util.Optional;
 @Repository
 public interface PANVerificationRepository extends JpaRepository<PANVerificationRecord, Long> {
 
-    // Basic finders
+    String SUMMARY = "new com.chumani.production.panverification.dto.VerificationSummary(" +
+        "p.id, p.referenceNumber, p.transactionId, p.traceId, p.status, p.aadhaarLinked, p.createdAt, " +
+        "p.responseTimestamp, p.errorCode, p.errorMessage, p.servedFromCache, p.retryCount)";
+
+    // Rows per round trip when streaming exports
+    String EXPORT_FETCH_SIZE = "500";
+
+    // Basic finders. Spring Data runs finders read-only, which routes them to a read replica when one
+    // is configured; this one backs the write path, so it is read-write and stays on the primary
+    // unless the caller's transaction is read-only.
+    @Transactional
     Optional<PANVerificationRecord> findByReferenceNumber(String referenceNumber);
     Optional<PANVerificationRecord> findByTransactionId(String transactionId);
-    List<PANVerificationRecord> findByPanNumber(String panNumber);
+    List<PANVerificationRecord> findByPanKey(long panKey);
     List<PANVerificationRecord> findByTraceId(String traceId);
 
     // Status-based queries
     List<PANVerificationRecord> findByStatus(PANStatus status);
-    List<PANVerificationRecord> findByPanNumberAndStatus(String panNumber, PANStatus status);
+    List<PANVerificationRecord> findByPanKeyAndStatus(long panKey, PANStatus status);
 
     // Date range queries
     List<PANVerificationRecord> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
@@ -35,27 +53,107 @@ public interface PANVerificationRepository extends JpaRepository<PANVerification
     List<PANVerificationRecord> findByErrorCodeIsNotNull();
     List<PANVerificationRecord> findByRetryCountGreaterThan(Integer retryCount);
 
-    // Audit queries
-    @Query("SELECT p FROM PANVerificationRecord p WHERE p.panNumber = :panNumber ORDER BY p.createdAt DESC")
-    List<PANVerificationRecord> findPANHistory(@Param("panNumber") String panNumber);
+    // Audit queries; PANs are matched by PanCodec key
+    @Query("SELECT p FROM PANVerificationRecord p WHERE p.panKey = :panKey ORDER BY p.createdAt DESC")
+    List<PANVerificationRecord> findPANHistory(@Param("panKey") long panKey);
 
     @Query("SELECT p FROM PANVerificationRecord p WHERE p.createdAt >= :fromDate ORDER BY p.createdAt DESC")
     List<PANVerificationRecord> findRecentVerifications(@Param("fromDate") LocalDateTime fromDate);
 
+    // Keyset pages, newest first: the *Before variants continue strictly after the cursor row
+    @Query("SELECT " + SUMMARY + " FROM PANVerificationRecord p WHERE p.panKey = :panKey " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<VerificationSummary> findPANHistoryPage(@Param("panKey") long panKey, Limit limit);
+
+    @Query("SELECT " + SUMMARY + " FROM PANVerificationRecord p WHERE p.panKey = :panKey " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<VerificationSummary> findPANHistoryPageBefore(@Param("panKey") long panKey,
+                                                       @Param("createdAt") LocalDateTime createdAt,
+                                                       @Param("id") Long id, Limit limit);
+
+    @Query("SELECT " + SUMMARY + " FROM PANVerificationRecord p WHERE p.createdAt >= :fromDate " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<VerificationSummary> findRecentPage(@Param("fromDate") LocalDateTime fromDate, Limit limit);
+
+    @Query("SELECT " + SUMMARY + " FROM PANVerificationRecord p WHERE p.createdAt >= :fromDate " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<VerificationSummary> findRecentPageBefore(@Param("fromDate") LocalDateTime fromDate,
+                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("id") Long id, Limit limit);
+
+    // Streaming exports: must be consumed (and closed) inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("SELECT " + SUMMARY + " FROM PANVerificationRecord p WHERE p.panKey = :panKey " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    Stream<VerificationSummary> streamPANHistory(@Param("panKey") long panKey);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("SELECT " + SUMMARY + " FROM PANVerificationRecord p WHERE p.createdAt >= :fromDate " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    Stream<VerificationSummary> streamRecentVerifications(@Param("fromDate") LocalDateTime fromDate);
+
+    @Query("SELECT p FROM PANVerificationRecord p WHERE p.panKey = :panKey AND p.createdAt > :since " +
+           "AND p.responseTimestamp IS NOT NULL AND p.errorCode IS NULL ORDER BY p.createdAt DESC")
+    List<PANVerificationRecord> findLatestSuccessful(@Param("panKey") long panKey,
+                                                     @Param("since") LocalDateTime since, Limit limit);
+
     @Query("SELECT COUNT(p) FROM PANVerificationRecord p WHERE p.status = :status AND p.createdAt >= :fromDate")
     Long countByStatusSince(@Param("status") PANStatus status, @Param("fromDate") LocalDateTime fromDate);
 
-    @Query("SELECT p FROM PANVerificationRecord p WHERE p.responseTimestamp IS NULL")
-    List<PANVerificationRecord> findPendingVerifications();
+    // Recovery must not miss records a lagging replica has not seen yet: primary only.
+    // Pending records whose claim has lapsed by now, oldest first, at most limit of them per sweep
+    @Transactional
+    @Query("SELECT p FROM PANVerificationRecord p WHERE p.responseTimestamp IS NULL " +
+           "AND (p.claimedUntil IS NULL OR p.claimedUntil < :now) ORDER BY p.requestTimestamp")
+    List<PANVerificationRecord> findPendingVerifications(@Param("now") LocalDateTime now, Limit limit);
+
+    // Claims a pending record for owner until claimedUntil: when unclaimed, already its own, or its
+    // claim has lapsed. 0 when another instance holds it, or it is completed or unknown
+    @Modifying
+    @Transactional
+    @Query("UPDATE PANVerificationRecord p SET p.claimedBy = :owner, p.claimedUntil = :claimedUntil " +
+           "WHERE p.referenceNumber = :referenceNumber AND p.responseTimestamp IS NULL " +
+           "AND (p.claimedBy = :owner OR p.claimedUntil IS NULL OR p.claimedUntil < :now)")
+    int claimPending(@Param("referenceNumber") String referenceNumber, @Param("owner") String owner,
+                     @Param("now") LocalDateTime now, @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    // Completed verifications per minute, status and error code. Columns: year, month, day, hour,
+    // minute, status, errorCode, count, upstream attempts, cache hits
+    @Query("SELECT year(p.responseTimestamp), month(p.responseTimestamp), day(p.responseTimestamp), " +
+           "hour(p.responseTimestamp), minute(p.responseTimestamp), p.status, p.errorCode, COUNT(p), " +
+           "SUM(CASE WHEN p.servedFromCache = true THEN 0 ELSE p.retryCount + 1 END), " +
+           "SUM(CASE WHEN p.servedFromCache = true THEN 1 ELSE 0 END) " +
+           "FROM PANVerificationRecord p WHERE p.responseTimestamp >= :since " +
+           "GROUP BY year(p.responseTimestamp), month(p.responseTimestamp), day(p.responseTimestamp), " +
+           "hour(p.responseTimestamp), minute(p.responseTimestamp), p.status, p.errorCode")
+    List<Object[]> countCompletedPerMinuteSince(@Param("since") LocalDateTime since);
+
+    // Verifications completed in (from, to] per hour, status and error code, for the rollup job.
+    // Columns: year, month, day, hour, status, errorCode, count, aadhaar linked count,
+    // latency sum (ns), latency max (ns)
+    @Query("SELECT year(p.responseTimestamp), month(p.responseTimestamp), day(p.responseTimestamp), " +
+           "hour(p.responseTimestamp), p.status, p.errorCode, COUNT(p), " +
+           "SUM(CASE WHEN p.aadhaarLinked = true THEN 1 ELSE 0 END), " +
+           "SUM((p.responseTimestamp - p.requestTimestamp) by nanosecond), " +
+           "MAX((p.responseTimestamp - p.requestTimestamp) by nanosecond) " +
+           "FROM PANVerificationRecord p WHERE p.responseTimestamp > :from AND p.responseTimestamp <= :to " +
+           "GROUP BY year(p.responseTimestamp), month(p.responseTimestamp), day(p.responseTimestamp), " +
+           "hour(p.responseTimestamp), p.status, p.errorCode")
+    List<Object[]> aggregateCompletedPerHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT MIN(p.responseTimestamp) FROM PANVerificationRecord p")
+    Optional<LocalDateTime> findEarliestResponseTimestamp();
 
     // Existence checks
     boolean existsByReferenceNumber(String referenceNumber);
     boolean existsByTransactionId(String transactionId);
-    boolean existsByPanNumberAndCreatedAtAfter(String panNumber, LocalDateTime afterDate);
+    boolean existsByPanKeyAndCreatedAtAfter(long panKey, LocalDateTime afterDate);
 
     // Custom business queries
-    @Query("SELECT p FROM PANVerificationRecord p WHERE p.panNumber = :panNumber AND p.status = 'ACTIVE' ORDER BY p.createdAt DESC")
-    Optional<PANVerificationRecord> findLatestActivePAN(@Param("panNumber") String panNumber);
+    @Query("SELECT p FROM PANVerificationRecord p WHERE p.panKey = :panKey AND p.status = 'ACTIVE' ORDER BY p.createdAt DESC")
+    Optional<PANVerificationRecord> findLatestActivePAN(@Param("panKey") long panKey);
 
     @Query("SELECT DISTINCT p.panNumber FROM PANVerificationRecord p WHERE p.createdAt >= :fromDate")
     List<String> findDistinctPANsVerifiedSince(@Param("fromDate") LocalDateTime fromDate);
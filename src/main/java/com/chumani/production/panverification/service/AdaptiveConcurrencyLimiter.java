@@ -0,0 +1,212 @@
+package com.chumani.production.panverification.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive Concurrency Limiter
+ * Gradient-style limit on concurrent upstream calls, after Netflix concurrency-limits' Gradient2:
+ * the limit follows long-term RTT / recent RTT (grows while latency is stable, shrinks as it
+ * climbs) and is cut multiplicatively on overload failures (timeouts, 5xx, 429).
+ *
+ * Callers over the limit wait in a bounded FIFO queue for at most maxWait; anything that
+ * cannot be queued or times out is rejected with {@link LimitExceededException}.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+
+    // Guarded by lock
+    private double estimatedLimit;
+    private double longRttNanos;
+    private double shortRttNanos;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                      double rttTolerance, int maxQueue, long maxWaitMs) {
+        this.estimatedLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = 0.2;
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+    }
+
+    /**
+     * Acquire a permit, completing immediately when under the limit, after queueing otherwise.
+     * The future fails with LimitExceededException when the queue is full or the wait times out.
+     */
+    public CompletableFuture<Permit> acquire() {
+        CompletableFuture<Permit> waiter;
+        lock.lock();
+        try {
+            if (inFlight < (int) estimatedLimit) {
+                inFlight++;
+                return CompletableFuture.completedFuture(new Permit());
+            }
+            if (waiters.size() >= maxQueue) {
+                return CompletableFuture.failedFuture(new LimitExceededException("queue full"));
+            }
+            waiter = new CompletableFuture<>();
+            waiters.addLast(waiter);
+        } finally {
+            lock.unlock();
+        }
+
+        waiter.completeOnTimeout(null, maxWaitNanos, TimeUnit.NANOSECONDS);
+        return waiter.thenApply(permit -> {
+            if (permit == null) {
+                removeWaiter(waiter);
+                throw new LimitExceededException("timed out waiting for upstream capacity");
+            }
+            return permit;
+        });
+    }
+
+    /**
+     * Acquire a permit only if one is free right now, without queueing; null otherwise
+     */
+    public Permit tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight < (int) estimatedLimit && waiters.isEmpty()) {
+                inFlight++;
+                return new Permit();
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) estimatedLimit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeWaiter(CompletableFuture<Permit> waiter) {
+        lock.lock();
+        try {
+            waiters.remove(waiter);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long rttNanos, boolean sampled, boolean overloaded) {
+        List<CompletableFuture<Permit>> granted = new ArrayList<>();
+        lock.lock();
+        try {
+            inFlight--;
+            if (sampled) {
+                updateLimit(rttNanos, overloaded);
+            }
+            while (inFlight < (int) estimatedLimit && !waiters.isEmpty()) {
+                inFlight++;
+                granted.add(waiters.pollFirst());
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Complete outside the lock: completion runs the waiter's continuation on this thread
+        for (CompletableFuture<Permit> waiter : granted) {
+            Permit permit = new Permit();
+            if (!waiter.complete(permit)) {
+                permit.ignore();
+            }
+        }
+    }
+
+    private void updateLimit(long rttNanos, boolean overloaded) {
+        if (overloaded) {
+            estimatedLimit = Math.max(minLimit, estimatedLimit * backoffRatio);
+            return;
+        }
+
+        shortRttNanos = shortRttNanos == 0 ? rttNanos : shortRttNanos * 0.9 + rttNanos * 0.1;
+        longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos * 0.99 + rttNanos * 0.01;
+        // Recovering from a latency spike: let the baseline follow back down quickly
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        // Don't grow while the limit isn't being used
+        if (inFlight < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / shortRttNanos));
+        double queueAllowance = Math.sqrt(estimatedLimit);
+        double newLimit = estimatedLimit * gradient + queueAllowance;
+        newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    /**
+     * A granted slot; exactly one of the release methods must be called
+     */
+    public class Permit {
+
+        private final long startNanos = System.nanoTime();
+
+        // Call answered (including non-overload failures such as 4xx): a usable latency sample
+        public void onComplete() {
+            release(System.nanoTime() - startNanos, true, false);
+        }
+
+        // Timeout, 5xx, 429: the upstream is pushing back
+        public void onOverload() {
+            release(System.nanoTime() - startNanos, true, true);
+        }
+
+        // Released without a usable latency sample (e.g. the call was never made)
+        public void ignore() {
+            release(0, false, false);
+        }
+    }
+
+    public static class LimitExceededException extends RuntimeException {
+        public LimitExceededException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.chumani.production.panverification.service;
+
+import com.chumani.production.panverification.dto.PANVerificationRequest;
+import com.chumani.production.panverification.dto.PANVerificationResponse;
+import com.chumani.production.panverification.entity.PANVerificationRecord;
+import com.chumani.production.panverification.repository.PANVerificationRepository;
+import com.chumani.production.panverification.util.RequestTrace;
+import com.chumani.production.panverification.util.WorkerThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Async Verification Worker
+ * Bounded worker pool that completes verifications accepted with 202.
+ * Pending records are durable before the client is answered, so anything the
+ * pool could not take (queue full, restart) is picked up again by the recovery sweep.
+ * Each pending record is claimed in the database by the instance queueing or completing it;
+ * recovery only takes records whose claim has lapsed, so instances never complete the same one.
+ */
+@Component
+public class AsyncVerificationWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncVerificationWorker.class);
+
+    @Autowired
+    private PANVerificationService verificationService;
+
+    @Autowired
+    private PANVerificationRepository repository;
+
+    @Value("${pan.verification.async.workers:8}")
+    private int workers;
+
+    @Value("${pan.verification.async.queue-capacity:1000}")
+    private int queueCapacity;
+
+    // Workers run on virtual threads; their number still bounds concurrent completions
+    @Value("${pan.verification.threads.virtual:false}")
+    private boolean virtualThreads;
+
+    // Reference numbers queued or running on this pool
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        // The bounded queue is the backpressure: what it rejects is left for the recovery sweep
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), WorkerThreads.factory("pan-async-", virtualThreads));
+    }
+
+    @PreDestroy
+    void stop() {
+        // Unfinished work stays pending in the database and is recovered on the next start
+        executor.shutdownNow();
+    }
+
+    /**
+     * Persist a pending verification and queue it for background completion
+     */
+    public PANVerificationResponse submit(PANVerificationRequest request, RequestTrace trace) {
+        PANVerificationResponse accepted = verificationService.createPendingVerification(request, trace);
+        if (!dispatch(accepted.getReferenceNumber(), request.isForceRefresh())) {
+            logger.warn("Async verification queue full, leaving for recovery - ReferenceNumber: {}",
+                       accepted.getReferenceNumber());
+        }
+        return accepted;
+    }
+
+    /**
+     * Re-queue pending records left behind by a stopped instance or a full queue, once their claim
+     * has lapsed; oldest first, no more per sweep than the queue has room for
+     */
+    @Scheduled(fixedDelayString = "${pan.verification.async.recovery-interval-ms:30000}")
+    public void recoverPendingVerifications() {
+        int room = executor.getQueue().remainingCapacity();
+        if (room == 0) {
+            return;
+        }
+        int recovered = 0;
+
+        for (PANVerificationRecord record : repository.findPendingVerifications(LocalDateTime.now(), Limit.of(room))) {
+            String referenceNumber = record.getReferenceNumber();
+            if (verificationService.isInProgress(referenceNumber)) {
+                continue;
+            }
+            if (!dispatch(referenceNumber, false)) {
+                break;
+            }
+            recovered++;
+        }
+
+        if (recovered > 0) {
+            logger.info("Recovered {} pending PAN verifications", recovered);
+        }
+    }
+
+    private boolean dispatch(String referenceNumber, boolean forceRefresh) {
+        if (!queued.add(referenceNumber)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    verificationService.completePendingVerification(referenceNumber, forceRefresh);
+                } catch (Exception e) {
+                    logger.error("Async PAN verification crashed - ReferenceNumber: {}, Error: {}",
+                                referenceNumber, e.getMessage(), e);
+                } finally {
+                    queued.remove(referenceNumber);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            queued.remove(referenceNumber);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.chumani.production.panverification.service;
+
+import com.chumani.production.panverification.dto.PANVerificationRequest;
+import com.chumani.production.panverification.dto.PANVerificationResponse;
+import com.chumani.production.panverification.entity.IdempotencyRecord;
+import com.chumani.production.panverification.enums.IdempotencyState;
+import com.chumani.production.panverification.repository.IdempotencyRecordRepository;
+import com.chumani.production.panverification.util.Deadline;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency Service
+ * Runs a verify request carrying an Idempotency-Key at most once per key and TTL. The first
+ * request claims the key by inserting its row (the primary key makes the insert atomic across
+ * instances) and stores its response on success; later requests with the key get that response
+ * replayed, with an Idempotent-Replayed header, without a new record or upstream call.
+ *
+ * A duplicate arriving while the first is still running polls for its response for up to the
+ * wait timeout, then gets 409. A key reused with a different request within the TTL gets 422.
+ * Responses with an error code, and requests that fail outright, release the claim so a retry
+ * runs again. A claim is leased until the claiming request's deadline plus the lease; one not
+ * completed by then (e.g. its instance died) is taken over by the next duplicate. Expired keys
+ * are free for reuse at once and deleted by a scheduled sweep.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final int MAX_KEY_LENGTH = 255;
+
+    // A plain INSERT: a duplicate key fails it, which JdbcTemplate reports without Hibernate's error logging
+    private static final String CLAIM = "INSERT INTO idempotency_keys " +
+        "(idempotency_key, request_hash, state, claimed_at, lease_expires_at, expires_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private VerificationMetrics metrics;
+
+    @Value("${pan.verification.idempotency.ttl:PT24H}")
+    private Duration ttl;
+
+    // Beyond the claiming request's deadline
+    @Value("${pan.verification.idempotency.lease:PT60S}")
+    private Duration lease;
+
+    @Value("${pan.verification.idempotency.wait-timeout:PT5S}")
+    private Duration waitTimeout;
+
+    @Value("${pan.verification.idempotency.poll-interval-ms:100}")
+    private long pollIntervalMs;
+
+    /**
+     * Run the verification under the key, or answer from the request that already did
+     */
+    public ResponseEntity<PANVerificationResponse> execute(String key, PANVerificationRequest request, boolean async,
+                                                           Deadline requestDeadline,
+                                                           Supplier<ResponseEntity<PANVerificationResponse>> verification) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                IDEMPOTENCY_KEY_HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = fingerprint(request, async);
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+
+        while (true) {
+            LocalDateTime now = now();
+            if (claim(key, requestHash, now, leaseExpiry(now, requestDeadline))) {
+                return runClaimed(key, now, verification);
+            }
+            Optional<IdempotencyRecord> existing = repository.findByKey(key);
+            if (existing.isEmpty()) {
+                // Released by a failed first request, or swept: claim it again
+                continue;
+            }
+            IdempotencyRecord record = existing.get();
+            // Expired but not yet swept: the key is free, whatever it was used for
+            if (record.getExpiresAt().isBefore(now)) {
+                repository.deleteIfExpired(key, now);
+                continue;
+            }
+            if (!record.getRequestHash().equals(requestHash)) {
+                metrics.recordIdempotency(VerificationMetrics.IdempotencyOutcome.MISMATCH);
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    IDEMPOTENCY_KEY_HEADER + " was already used with a different request");
+            }
+            if (record.getState() == IdempotencyState.COMPLETED) {
+                metrics.recordIdempotency(VerificationMetrics.IdempotencyOutcome.REPLAYED);
+                return replay(record);
+            }
+            if (record.getLeaseExpiresAt().isBefore(now) && repository.takeOver(key, now,
+                    leaseExpiry(now, requestDeadline), now.plus(ttl), IdempotencyState.IN_PROGRESS) == 1) {
+                logger.warn("Taking over idempotency key claimed at {} and never completed", record.getClaimedAt());
+                return runClaimed(key, now, verification);
+            }
+            if (System.nanoTime() >= deadline) {
+                metrics.recordIdempotency(VerificationMetrics.IdempotencyOutcome.IN_PROGRESS);
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A request with this " + IDEMPOTENCY_KEY_HEADER + " is still in progress; retry later");
+            }
+            pause();
+        }
+    }
+
+    /**
+     * Delete keys past their expiry: stored responses older than the TTL and abandoned claims
+     */
+    @Scheduled(fixedDelayString = "${pan.verification.idempotency.sweep-interval-ms:60000}",
+               initialDelayString = "${pan.verification.idempotency.sweep-interval-ms:60000}")
+    public void sweepExpired() {
+        int deleted = repository.deleteExpired(now());
+        if (deleted > 0) {
+            logger.debug("Swept {} expired idempotency keys", deleted);
+        }
+    }
+
+    private boolean claim(String key, String requestHash, LocalDateTime now, LocalDateTime leaseExpiresAt) {
+        try {
+            jdbcTemplate.update(CLAIM, key, requestHash, IdempotencyState.IN_PROGRESS.name(), now, leaseExpiresAt,
+                now.plus(ttl));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private ResponseEntity<PANVerificationResponse> runClaimed(String key, LocalDateTime claimedAt,
+            Supplier<ResponseEntity<PANVerificationResponse>> verification) {
+        metrics.recordIdempotency(VerificationMetrics.IdempotencyOutcome.CLAIMED);
+        ResponseEntity<PANVerificationResponse> response;
+        try {
+            response = verification.get();
+        } catch (RuntimeException e) {
+            release(key, claimedAt);
+            throw e;
+        }
+        PANVerificationResponse body = response.getBody();
+        if (!response.getStatusCode().is2xxSuccessful() || body == null || body.getErrorCode() != null) {
+            release(key, claimedAt);
+            return response;
+        }
+        try {
+            String location = response.getHeaders().getFirst(HttpHeaders.LOCATION);
+            if (repository.complete(key, claimedAt, response.getStatusCode().value(), location,
+                    objectMapper.writeValueAsString(body), now().plus(ttl),
+                    IdempotencyState.IN_PROGRESS, IdempotencyState.COMPLETED) == 0) {
+                logger.warn("Idempotency key claim was taken over before completing; response not stored");
+            }
+        } catch (JsonProcessingException | DataAccessException e) {
+            // The claim lapses after its lease and the next duplicate runs again
+            logger.warn("Failed to store idempotent response: {}", e.getMessage());
+        }
+        return response;
+    }
+
+    // The request may run until its deadline, so the claim must outlive it
+    private LocalDateTime leaseExpiry(LocalDateTime now, Deadline requestDeadline) {
+        LocalDateTime expiry = now.plus(lease);
+        return requestDeadline.isBounded() ? expiry.plusNanos(requestDeadline.remainingNanos()) : expiry;
+    }
+
+    private void release(String key, LocalDateTime claimedAt) {
+        try {
+            repository.release(key, claimedAt, IdempotencyState.IN_PROGRESS);
+        } catch (DataAccessException e) {
+            logger.warn("Failed to release idempotency key claim: {}", e.getMessage());
+        }
+    }
+
+    private ResponseEntity<PANVerificationResponse> replay(IdempotencyRecord record) {
+        PANVerificationResponse body;
+        try {
+            body = objectMapper.readValue(record.getResponseBody(), PANVerificationResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable stored idempotent response", e);
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(record.getStatusCode())
+            .header(REPLAYED_HEADER, "true");
+        if (record.getLocation() != null) {
+            builder.header(HttpHeaders.LOCATION, record.getLocation());
+        }
+        return builder.body(body);
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(pollIntervalMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for an in-progress idempotent request", e);
+        }
+    }
+
+    // Millisecond precision survives the database round trip, so claims compare equal when read back
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    /**
+     * SHA-256 over what determines the outcome: PAN, name, forced refresh and sync/async mode
+     */
+    static String fingerprint(PANVerificationRequest request, boolean async) {
+        String canonical = request.getPan() + '\n' + request.getName() + '\n'
+            + request.isForceRefresh() + '\n' + async;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+}
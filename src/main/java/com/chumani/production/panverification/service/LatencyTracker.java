@@ -0,0 +1,73 @@
+package com.chumani.production.panverification.service;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Latency Tracker
+ * Ring of the most recent upstream call latencies with one tracked percentile. The percentile
+ * is recomputed at most every refresh interval by whichever caller gets there first, so
+ * reading it on every attempt stays cheap.
+ */
+public class LatencyTracker {
+
+    private static final long REFRESH_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+    private final AtomicLongArray samples;
+    private final AtomicLong recorded = new AtomicLong();
+    private final double percentile;
+    private final int minSamples;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile long cachedNanos = -1;
+    private volatile long cachedAt;
+
+    public LatencyTracker(int windowSize, double percentile, int minSamples) {
+        this.samples = new AtomicLongArray(windowSize);
+        this.percentile = percentile;
+        this.minSamples = Math.min(minSamples, windowSize);
+    }
+
+    public void record(long latencyNanos) {
+        long index = recorded.getAndIncrement();
+        samples.set((int) (index % samples.length()), latencyNanos);
+    }
+
+    /**
+     * Tracked percentile of the recent window, or -1 until minSamples latencies were recorded
+     */
+    public long getPercentileNanos() {
+        long now = System.nanoTime();
+        if (now - cachedAt > REFRESH_NANOS && refreshLock.tryLock()) {
+            try {
+                cachedNanos = computePercentile();
+                cachedAt = now;
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+        return cachedNanos;
+    }
+
+    public double getPercentileMillis() {
+        long nanos = getPercentileNanos();
+        return nanos < 0 ? -1 : nanos / 1_000_000.0;
+    }
+
+    private long computePercentile() {
+        int count = (int) Math.min(recorded.get(), samples.length());
+        if (count < minSamples) {
+            return -1;
+        }
+        long[] window = new long[count];
+        for (int i = 0; i < count; i++) {
+            window[i] = samples.get(i);
+        }
+        Arrays.sort(window);
+        int rank = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return window[Math.max(0, Math.min(count - 1, rank))];
+    }
+}
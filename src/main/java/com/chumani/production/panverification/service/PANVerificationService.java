@@ -2,32 +2,73 @@ package com.chumani.production.panverification.service;
 
 import com.chumani.production.panverification.dto.PANVerificationRequest;
 import com.chumani.production.panverification.dto.PANVerificationResponse;
+import com.chumani.production.panverification.dto.VerificationCursor;
+import com.chumani.production.panverification.dto.VerificationPage;
+import com.chumani.production.panverification.dto.VerificationStats;
+import com.chumani.production.panverification.dto.VerificationSummary;
 import com.chumani.production.panverification.entity.PANVerificationRecord;
 import com.chumani.production.panverification.enums.PANStatus;
 import com.chumani.production.panverification.repository.PANVerificationRepository;
+import com.chumani.production.panverification.util.Deadline;
+import com.chumani.production.panverification.util.PanCodec;
+import com.chumani.production.panverification.util.RequestTrace;
+import com.chumani.production.panverification.util.SnowflakeIdGenerator;
+import com.chumani.production.panverification.util.WorkerThreads;
 import com.chumani.production.panverification.service.ProteanAPIService;
 import com.chumani.production.panverification.service.TraceService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * PAN Verification Service
  * Implements comprehensive business logic as per requirements
+ *
+ * Not transactional at class level: no pooled connection is held while the Protean
+ * call (and its retry backoff) is in progress. Completed records are saved once, through
+ * the write-behind VerificationRecordWriter; only async pending records, which the client
+ * is told to poll for, are inserted synchronously up front.
+ *
+ * Request-facing methods take the caller's RequestTrace: its trace id becomes the record's,
+ * and the time spent in each stage is recorded into it alongside the metrics. Synchronous ones
+ * also take the request's Deadline: once it has passed, the upstream call is skipped and the
+ * verification recorded as DEADLINE_EXCEEDED. Async completion has no deadline; the client was
+ * answered when the pending record was created.
  */
 @Service
-@Transactional
 public class PANVerificationService {
 
     private static final Logger logger = LoggerFactory.getLogger(PANVerificationService.class);
 
+    static final String REFERENCE_PREFIX = "PAN";
+    static final String TRANSACTION_PREFIX = "TXN";
+
     @Autowired
     private PANVerificationRepository repository;
 
@@ -37,72 +78,126 @@ public class PANVerificationService {
     @Autowired
     private TraceService traceService;
 
+    @Autowired
+    private SnowflakeIdGenerator idGenerator;
+
+    @Autowired
+    private VerificationResultCache resultCache;
+
+    @Autowired
+    private UpstreamCallCoalescer upstreamCallCoalescer;
+
+    @Autowired
+    private VerificationRecordWriter recordWriter;
+
+    @Autowired
+    private VerificationStatsCollector statsCollector;
+
+    @Autowired
+    private VerificationMetrics metrics;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // How old a stored result may be to stand in for Protean while its circuit is open
+    @Value("${pan.verification.circuit-open-fallback.max-age:PT24H}")
+    private Duration fallbackMaxAge;
+
+    @Value("${pan.verification.batch.parallelism:16}")
+    private int batchParallelism;
+
+    @Value("${pan.verification.threads.virtual:false}")
+    private boolean virtualThreads;
+
+    @Value("${pan.verification.datasource.replica.enabled:false}")
+    private boolean replicaEnabled;
+
+    // Status lookups for references younger than this read from the primary
+    @Value("${pan.verification.datasource.replica.max-lag:PT5S}")
+    private Duration replicaMaxLag;
+
+    // Read-only transactions, which the routing DataSource sends to the replica
+    private TransactionTemplate replicaReads;
+
+    // Runs batch items: a fixed pool of batch parallelism platform threads, or a virtual thread per item
+    private ExecutorService batchExecutor;
+
+    // Caps concurrent upstream calls across all batch requests (never contended with the fixed pool)
+    private Semaphore batchPermits;
+
+    // How long a pending record stays with the instance that queued it or is completing it;
+    // once lapsed, recovery on any instance may take it over
+    @Value("${pan.verification.async.claim-lease:PT2M}")
+    private Duration claimLease;
+
+    // Owner of the pending records this instance claims
+    private final String instanceId = UUID.randomUUID().toString();
+
+    // Reference numbers whose pending record this instance is currently completing
+    private final Set<String> inProgress = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void startBatchExecutor() {
+        ThreadFactory threadFactory = WorkerThreads.factory("pan-batch-", virtualThreads);
+        batchExecutor = virtualThreads
+            ? Executors.newThreadPerTaskExecutor(threadFactory)
+            : Executors.newFixedThreadPool(batchParallelism, threadFactory);
+        batchPermits = new Semaphore(batchParallelism);
+    }
+
+    @PostConstruct
+    void createReplicaReads() {
+        replicaReads = new TransactionTemplate(transactionManager);
+        replicaReads.setReadOnly(true);
+    }
+
+    @PreDestroy
+    void stopBatchExecutor() {
+        batchExecutor.shutdownNow();
+    }
+
     /**
      * Main PAN verification method with comprehensive business logic
      */
-    public PANVerificationResponse verifyPAN(PANVerificationRequest request) {
-        String traceId = traceService.generateTraceId();
+    public PANVerificationResponse verifyPAN(PANVerificationRequest request, RequestTrace trace, Deadline deadline) {
+        long startNanos = System.nanoTime();
+        String traceId = traceService.traceIdOf(trace);
         String referenceNumber = generateReferenceNumber();
         String transactionId = generateTransactionId();
 
-        logger.info("Starting PAN verification - TraceId: {}, ReferenceNumber: {}, PAN: {}",
-                   traceId, referenceNumber, request.getMaskedPan());
-
+        PANVerificationRecord record = newPendingRecord(request, traceId, referenceNumber, transactionId);
         try {
-            // Create initial record
-            PANVerificationRecord record = new PANVerificationRecord(
-                request.getPan(),
-                request.getName(),
-                PANStatus.ACTIVE, // Default, will be updated
-                false, // Default, will be updated
-                referenceNumber,
-                transactionId
-            );
-            record.setTraceId(traceId);
-            record.setRequestTimestamp(LocalDateTime.now());
-
-            // Save initial record
-            record = repository.save(record);
-
-            // Call Protean API with retry logic
-            PANVerificationResponse apiResponse = proteanAPIService.verifyPANWithRetry(
-                request.getPan(), request.getName(), traceId
-            );
-
-            // Update record with API response
-            record.setStatus(apiResponse.getStatus());
-            record.setAadhaarLinked(apiResponse.getAadhaarLinked());
-            record.setResponseTimestamp(LocalDateTime.now());
-            record.setErrorCode(apiResponse.getErrorCode());
-            record.setErrorMessage(apiResponse.getErrorMessage());
+            // Phase 1: call Protean API with retry logic (or use a cached result), no connection held
+            PANVerificationResponse apiResponse = verifyUpstream(record, request.isForceRefresh(), trace, deadline);
 
-            // Save updated record
-            repository.save(record);
+            // Phase 2: queue the completed record for a batched insert
+            applyUpstreamResult(record, apiResponse);
+            saveCompleted(record, trace);
 
             // Create response
             PANVerificationResponse response = new PANVerificationResponse(
                 referenceNumber, transactionId, apiResponse.getStatus(), apiResponse.getAadhaarLinked()
             );
             response.setTraceId(traceId);
-            response.setMessage("PAN verification completed successfully");
-
-            logger.info("PAN verification completed - TraceId: {}, Status: {}, AadhaarLinked: {}",
-                       traceId, apiResponse.getStatus(), apiResponse.getAadhaarLinked());
+            response.setServedFromCache(record.getServedFromCache());
+            response.setRetryCount(record.getRetryCount());
+            if (apiResponse.getErrorCode() == null) {
+                response.setMessage("PAN verification completed successfully");
+            } else {
+                response.setErrorCode(apiResponse.getErrorCode());
+                response.setErrorMessage(apiResponse.getErrorMessage());
+                response.setMessage("PAN verification failed");
+            }
 
+            metrics.recordStage(VerificationMetrics.Stage.TOTAL, outcomeOf(record), statusOf(record),
+                System.nanoTime() - startNanos);
             return response;
 
         } catch (Exception e) {
             logger.error("PAN verification failed - TraceId: {}, Error: {}", traceId, e.getMessage(), e);
 
-            // Update record with error
-            Optional<PANVerificationRecord> recordOpt = repository.findByReferenceNumber(referenceNumber);
-            if (recordOpt.isPresent()) {
-                PANVerificationRecord record = recordOpt.get();
-                record.setErrorCode("VERIFICATION_FAILED");
-                record.setErrorMessage(e.getMessage());
-                record.setResponseTimestamp(LocalDateTime.now());
-                repository.save(record);
-            }
+            // Keep an audit record of the failed attempt
+            markFailed(record, e, trace);
 
             // Create error response
             PANVerificationResponse response = new PANVerificationResponse();
@@ -113,82 +208,486 @@ public class PANVerificationService {
             response.setErrorMessage("PAN verification failed: " + e.getMessage());
             response.setTimestamp(LocalDateTime.now());
 
+            metrics.recordStage(VerificationMetrics.Stage.TOTAL, VerificationMetrics.Outcome.ERROR, null,
+                System.nanoTime() - startNanos);
             return response;
         }
     }
 
+    /**
+     * Persist a pending verification without calling Protean.
+     * Used by the async mode; the record is completed later by completePendingVerification.
+     */
+    public PANVerificationResponse createPendingVerification(PANVerificationRequest request, RequestTrace trace) {
+        String traceId = traceService.traceIdOf(trace);
+        String referenceNumber = generateReferenceNumber();
+        String transactionId = generateTransactionId();
+
+        PANVerificationRecord pending = newPendingRecord(request, traceId, referenceNumber, transactionId);
+        // Queued here: other instances leave it alone until the claim lapses
+        pending.setClaimedBy(instanceId);
+        pending.setClaimedUntil(LocalDateTime.now().plus(claimLease));
+        long startNanos = System.nanoTime();
+        PANVerificationRecord record = repository.save(pending);
+        long elapsedNanos = System.nanoTime() - startNanos;
+        metrics.recordStage(VerificationMetrics.Stage.PENDING, VerificationMetrics.Outcome.SUCCESS, null, elapsedNanos);
+        trace.record(RequestTrace.Stage.DB_INSERT, elapsedNanos);
+
+        return convertToResponse(record);
+    }
+
+    /**
+     * Call Protean for a pending record and commit the result.
+     * Does nothing if the record is unknown, already completed, being completed by this instance,
+     * or claimed by another one. The claim is renewed for the completion, which is bounded by it:
+     * a completion that outlives its claim is abandoned and left pending for recovery.
+     */
+    public void completePendingVerification(String referenceNumber, boolean forceRefresh) {
+        if (!inProgress.add(referenceNumber)) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            long claimedNanos = System.nanoTime();
+            if (repository.claimPending(referenceNumber, instanceId, now, now.plus(claimLease)) == 0) {
+                return;
+            }
+            // A completed record may not have been flushed yet
+            Optional<PANVerificationRecord> recordOpt = recordWriter.findUnflushed(referenceNumber)
+                .or(() -> repository.findByReferenceNumber(referenceNumber));
+            if (recordOpt.isEmpty() || recordOpt.get().getResponseTimestamp() != null) {
+                return;
+            }
+            PANVerificationRecord record = recordOpt.get();
+            // The request that created the record has already been answered
+            RequestTrace trace = RequestTrace.untraced();
+            try {
+                PANVerificationResponse apiResponse = verifyUpstream(record, forceRefresh, trace,
+                    Deadline.after(claimedNanos, claimLease));
+                if (ProteanAPIService.DEADLINE_EXCEEDED.equals(apiResponse.getErrorCode())) {
+                    logger.warn("Claim lapsed before Protean answered, leaving for recovery - ReferenceNumber: {}",
+                               referenceNumber);
+                    return;
+                }
+                applyUpstreamResult(record, apiResponse);
+                saveCompleted(record, trace);
+
+            } catch (Exception e) {
+                logger.error("Async PAN verification failed - TraceId: {}, Error: {}",
+                            record.getTraceId(), e.getMessage(), e);
+                markFailed(record, e, trace);
+            }
+        } finally {
+            inProgress.remove(referenceNumber);
+        }
+    }
+
+    /**
+     * Whether this instance is currently completing the given verification
+     */
+    public boolean isInProgress(String referenceNumber) {
+        return inProgress.contains(referenceNumber);
+    }
+
+    /**
+     * Verify a batch of PANs, returning responses in request order
+     */
+    public List<PANVerificationResponse> verifyBatch(List<PANVerificationRequest> requests, RequestTrace trace,
+                                                     Deadline deadline) {
+        PANVerificationResponse[] responses = new PANVerificationResponse[requests.size()];
+        verifyBatch(requests, trace, deadline, response -> responses[response.getBatchIndex()] = response);
+        return Arrays.asList(responses);
+    }
+
+    /**
+     * Verify a batch of PANs with concurrent upstream calls.
+     * Each completed record goes to the write-behind writer, and each response is handed
+     * to the consumer on the calling thread as soon as its upstream call finishes, so slow
+     * PANs don't hold back fast ones. Items share the request's trace id and deadline; their
+     * stages are not recorded into its trace, which times the batch as a whole.
+     *
+     * Every item is recorded, even one whose verification throws (as VERIFICATION_FAILED). If the
+     * consumer throws or the wait is interrupted, the deadline is cancelled and the remaining items
+     * are still drained and recorded; the consumer's exception is rethrown afterwards.
+     */
+    public void verifyBatch(List<PANVerificationRequest> requests, RequestTrace trace, Deadline deadline,
+                            Consumer<PANVerificationResponse> onItemComplete) {
+        String traceId = traceService.traceIdOf(trace);
+
+        logger.debug("Starting batch PAN verification - TraceId: {}, Size: {}", traceId, requests.size());
+
+        List<PANVerificationRecord> records = new ArrayList<>(requests.size());
+        for (PANVerificationRequest request : requests) {
+            records.add(newPendingRecord(request, traceId, generateReferenceNumber(), generateTransactionId()));
+        }
+        completeBatch(requests, records, deadline, onItemComplete);
+
+        logger.debug("Batch PAN verification completed - TraceId: {}, Size: {}", traceId, requests.size());
+    }
+
+    private void completeBatch(List<PANVerificationRequest> requests, List<PANVerificationRecord> records,
+                               Deadline deadline, Consumer<PANVerificationResponse> onItemComplete) {
+        // Phase 1: fan out upstream calls, bounded by the batch executor
+        CompletionService<Integer> completionService = new ExecutorCompletionService<>(batchExecutor);
+        PANVerificationResponse[] apiResponses = new PANVerificationResponse[requests.size()];
+        // Items keep their own failures, so each completion still says which item it was
+        Exception[] failures = new Exception[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            int index = i;
+            boolean forceRefresh = requests.get(i).isForceRefresh();
+            completionService.submit(() -> {
+                try {
+                    batchPermits.acquire();
+                    try {
+                        apiResponses[index] = verifyUpstream(records.get(index), forceRefresh,
+                            RequestTrace.untraced(), deadline);
+                    } finally {
+                        batchPermits.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failures[index] = e;
+                } catch (Exception e) {
+                    failures[index] = e;
+                }
+                return index;
+            });
+        }
+
+        // Phase 2: queue completed records for batched inserts as they complete
+        boolean interrupted = false;
+        RuntimeException consumerFailure = null;
+        for (int completed = 0; completed < requests.size(); ) {
+            int index;
+            try {
+                index = completionService.take().get();
+            } catch (InterruptedException e) {
+                // Cut the remaining upstream work short, but still drain and record every item
+                interrupted = true;
+                deadline.cancel();
+                continue;
+            } catch (ExecutionException e) {
+                // Items catch their own exceptions, so only an Error gets here
+                throw new IllegalStateException("Batch verification failed", e.getCause());
+            }
+            completed++;
+
+            PANVerificationRecord record = records.get(index);
+            try {
+                if (failures[index] == null) {
+                    applyUpstreamResult(record, apiResponses[index]);
+                    saveCompleted(record, RequestTrace.untraced());
+                } else {
+                    logger.error("Batch PAN verification item failed - TraceId: {}, Error: {}",
+                                record.getTraceId(), failures[index].getMessage(), failures[index]);
+                    markFailed(record, failures[index], RequestTrace.untraced());
+                }
+            } catch (RuntimeException e) {
+                logger.error("Failed to record batch PAN verification - ReferenceNumber: {}, Error: {}",
+                            record.getReferenceNumber(), e.getMessage(), e);
+            }
+
+            if (consumerFailure == null) {
+                PANVerificationResponse response = convertToResponse(record);
+                response.setBatchIndex(index);
+                try {
+                    onItemComplete.accept(response);
+                } catch (RuntimeException e) {
+                    // Nobody to hand the rest to: shed it, but keep recording
+                    consumerFailure = e;
+                    deadline.cancel();
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (consumerFailure != null) {
+            throw consumerFailure;
+        }
+    }
+
     /**
      * Get verification status by reference number
+     * Read from a replica, when configured, only once the record is older than its max lag;
+     * the client typically polls right after being handed the reference number.
      */
     public Optional<PANVerificationResponse> getVerificationStatus(String referenceNumber) {
-        logger.info("Retrieving verification status for reference: {}", referenceNumber);
+        logger.debug("Retrieving verification status for reference: {}", referenceNumber);
 
-        return repository.findByReferenceNumber(referenceNumber)
-            .map(this::convertToResponse);
+        return recordWriter.findUnflushed(referenceNumber)
+            .or(() -> replicaMayLag(referenceNumber)
+                ? repository.findByReferenceNumber(referenceNumber)
+                : replicaReads.execute(status -> repository.findByReferenceNumber(referenceNumber)))
+            .map(PANVerificationService::convertToResponse);
     }
 
     /**
-     * Get verification history for a PAN
+     * Whether a replica might not have the record yet: its reference number was generated within
+     * the replica max lag, or is not one of ours and so has no creation time to go by
      */
-    public List<PANVerificationResponse> getVerificationHistory(String panNumber) {
-        logger.info("Retrieving verification history for PAN: {}", maskPAN(panNumber));
+    private boolean replicaMayLag(String referenceNumber) {
+        if (!replicaEnabled) {
+            return true;
+        }
+        long id = SnowflakeIdGenerator.decode(referenceNumber, REFERENCE_PREFIX.length());
+        return id < 0 || !referenceNumber.startsWith(REFERENCE_PREFIX)
+            || System.currentTimeMillis() - SnowflakeIdGenerator.timestampMillis(id) < replicaMaxLag.toMillis();
+    }
 
-        return repository.findPANHistory(panNumber)
-            .stream()
-            .map(this::convertToResponse)
-            .collect(Collectors.toList());
+    /**
+     * Get one page of verification history for a PAN, newest first.
+     * Pass the previous page's next cursor to continue; null starts from the newest.
+     */
+    @Transactional(readOnly = true)
+    public VerificationPage getVerificationHistory(long panKey, VerificationCursor cursor, int limit) {
+        logger.debug("Retrieving verification history for PAN: {}", PanCodec.mask(panKey));
+
+        // One extra row tells whether another page exists
+        Limit fetch = Limit.of(limit + 1);
+        List<VerificationSummary> rows = cursor == null
+            ? repository.findPANHistoryPage(panKey, fetch)
+            : repository.findPANHistoryPageBefore(panKey, cursor.getCreatedAt(), cursor.getId(), fetch);
+        return toPage(rows, limit);
     }
 
     /**
-     * Get recent verifications (last 24 hours)
+     * Get one page of recent verifications (last 24 hours), newest first
      */
-    public List<PANVerificationResponse> getRecentVerifications() {
+    @Transactional(readOnly = true)
+    public VerificationPage getRecentVerifications(VerificationCursor cursor, int limit) {
         LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
-        return repository.findRecentVerifications(yesterday)
-            .stream()
-            .map(this::convertToResponse)
-            .collect(Collectors.toList());
+        Limit fetch = Limit.of(limit + 1);
+        List<VerificationSummary> rows = cursor == null
+            ? repository.findRecentPage(yesterday, fetch)
+            : repository.findRecentPageBefore(yesterday, cursor.getCreatedAt(), cursor.getId(), fetch);
+        return toPage(rows, limit);
     }
 
     /**
-     * Get verification statistics
+     * Stream a PAN's whole verification history to the consumer, newest first,
+     * without holding more than one fetch of rows in memory
      */
-    public VerificationStats getVerificationStats() {
-        LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
+    @Transactional(readOnly = true)
+    public void exportVerificationHistory(long panKey, Consumer<PANVerificationResponse> consumer) {
+        logger.info("Exporting verification history for PAN: {}", PanCodec.mask(panKey));
+
+        try (Stream<VerificationSummary> rows = repository.streamPANHistory(panKey)) {
+            rows.map(PANVerificationService::toResponse).forEach(consumer);
+        }
+    }
 
-        Long activeCount = repository.countByStatusSince(PANStatus.ACTIVE, yesterday);
-        Long inactiveCount = repository.countByStatusSince(PANStatus.INACTIVE, yesterday);
-        Long errorCount = repository.findByErrorCodeIsNotNull().stream()
-            .filter(r -> r.getCreatedAt().isAfter(yesterday))
-            .count();
+    /**
+     * Stream all verifications of the last 24 hours to the consumer, newest first
+     */
+    @Transactional(readOnly = true)
+    public void exportRecentVerifications(Consumer<PANVerificationResponse> consumer) {
+        try (Stream<VerificationSummary> rows = repository.streamRecentVerifications(LocalDateTime.now().minusDays(1))) {
+            rows.map(PANVerificationService::toResponse).forEach(consumer);
+        }
+    }
 
-        return new VerificationStats(activeCount, inactiveCount, errorCount);
+    /**
+     * Get verification statistics for a recent window, from the in-memory rolling counters
+     */
+    public VerificationStats getVerificationStats(Duration window) {
+        return statsCollector.getStats(window);
     }
 
     // Helper methods
-    private String generateReferenceNumber() {
-        return "PAN" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 4).toUpperCase();
+    String generateReferenceNumber() {
+        return idGenerator.nextId(REFERENCE_PREFIX);
+    }
+
+    String generateTransactionId() {
+        return idGenerator.nextId(TRANSACTION_PREFIX);
+    }
+
+    private PANVerificationResponse verifyUpstream(PANVerificationRecord record, boolean forceRefresh,
+                                                   RequestTrace trace, Deadline deadline) {
+        long startNanos = System.nanoTime();
+        if (!forceRefresh) {
+            Optional<PANVerificationResponse> cached = resultCache.get(record.getPanNumber(), record.getName());
+            if (cached.isPresent()) {
+                record.setServedFromCache(true);
+                recordUpstreamStage(record, cached.get(), trace, startNanos);
+                return cached.get();
+            }
+        }
+        // The caller has stopped waiting (or gone away): don't spend an upstream call on it
+        if (deadline.isExpired()) {
+            metrics.recordDeadlineExceeded(VerificationMetrics.DeadlinePhase.ADMISSION);
+            PANVerificationResponse shed = ProteanAPIService.deadlineExceededResponse(0);
+            recordUpstreamStage(record, shed, trace, startNanos);
+            return shed;
+        }
+        // Concurrent callers for the same PAN share one upstream call
+        PANVerificationResponse apiResponse = upstreamCallCoalescer.execute(record.getPanNumber(), record.getName(),
+                deadline, () -> {
+            // Only the caller that makes the call sees its attempts in its trace
+            PANVerificationResponse upstreamResponse = proteanAPIService.verifyPANWithRetry(
+                record.getPanNumber(), record.getName(), record.getTraceId(), trace, deadline
+            );
+            if (ProteanAPIService.CIRCUIT_OPEN.equals(upstreamResponse.getErrorCode())) {
+                return lastKnownResult(record.getPanKey()).orElse(upstreamResponse);
+            }
+            resultCache.put(record.getPanNumber(), record.getName(), upstreamResponse);
+            return upstreamResponse;
+        });
+        if (Boolean.TRUE.equals(apiResponse.getServedFromCache())) {
+            record.setServedFromCache(true);
+        }
+        recordUpstreamStage(record, apiResponse, trace, startNanos);
+        return apiResponse;
+    }
+
+    private void recordUpstreamStage(PANVerificationRecord record, PANVerificationResponse apiResponse,
+                                     RequestTrace trace, long startNanos) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        if (apiResponse.getErrorCode() != null) {
+            metrics.recordStage(VerificationMetrics.Stage.UPSTREAM, VerificationMetrics.Outcome.ERROR, null, elapsedNanos);
+            trace.record(RequestTrace.Stage.UPSTREAM, 0, "error", elapsedNanos);
+        } else if (record.getServedFromCache()) {
+            metrics.recordStage(VerificationMetrics.Stage.UPSTREAM, VerificationMetrics.Outcome.CACHED,
+                apiResponse.getStatus(), elapsedNanos);
+            trace.record(RequestTrace.Stage.UPSTREAM, 0, "cached", elapsedNanos);
+        } else {
+            metrics.recordStage(VerificationMetrics.Stage.UPSTREAM, VerificationMetrics.Outcome.SUCCESS,
+                apiResponse.getStatus(), elapsedNanos);
+            trace.record(RequestTrace.Stage.UPSTREAM, 0, "success", elapsedNanos);
+        }
     }
 
-    private String generateTransactionId() {
-        return "TXN" + UUID.randomUUID().toString().replace("-", "").substring(0, 12).toUpperCase();
+    private static VerificationMetrics.Outcome outcomeOf(PANVerificationRecord record) {
+        if (record.getErrorCode() != null) {
+            return VerificationMetrics.Outcome.ERROR;
+        }
+        return record.getServedFromCache() ? VerificationMetrics.Outcome.CACHED : VerificationMetrics.Outcome.SUCCESS;
     }
 
-    private String maskPAN(String pan) {
-        if (pan == null || pan.length() != 10) return "INVALID_PAN";
-        return "XXXX" + pan.substring(4, 8) + pan.substring(9);
+    // An error record's status is only the pending placeholder
+    private static PANStatus statusOf(PANVerificationRecord record) {
+        return record.getErrorCode() == null ? record.getStatus() : null;
     }
 
-    private PANVerificationResponse convertToResponse(PANVerificationRecord record) {
+    /**
+     * Most recent successful result for a PAN, if recent enough to serve while Protean is unavailable
+     */
+    private Optional<PANVerificationResponse> lastKnownResult(long panKey) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(fallbackMaxAge);
+        return repository.findLatestSuccessful(panKey, cutoff, Limit.of(1)).stream()
+            .findFirst()
+            .map(record -> {
+                logger.info("Serving last known result while Protean circuit is open - PAN: {}, From: {}",
+                           PanCodec.mask(panKey), record.getReferenceNumber());
+                PANVerificationResponse fallback = new PANVerificationResponse();
+                fallback.setStatus(record.getStatus());
+                fallback.setAadhaarLinked(record.getAadhaarLinked());
+                fallback.setServedFromCache(true);
+                fallback.setRetryCount(0);
+                fallback.setTimestamp(record.getResponseTimestamp());
+                return fallback;
+            });
+    }
+
+    private PANVerificationRecord newPendingRecord(PANVerificationRequest request, String traceId,
+                                                   String referenceNumber, String transactionId) {
+        PANVerificationRecord record = new PANVerificationRecord(
+            request.getPan(),
+            request.getName(),
+            PANStatus.ACTIVE, // Default, will be updated
+            false, // Default, will be updated
+            referenceNumber,
+            transactionId
+        );
+        record.setTraceId(traceId);
+        record.setRequestTimestamp(LocalDateTime.now());
+        traceService.logVerificationRequest(record);
+        return record;
+    }
+
+    private void saveCompleted(PANVerificationRecord record, RequestTrace trace) {
+        long startNanos = System.nanoTime();
+        if (record.getErrorCode() == null) {
+            traceService.logVerificationResponse(record);
+        } else {
+            traceService.logError(record);
+            metrics.recordError(record.getErrorCode());
+        }
+        statsCollector.record(record);
+        recordWriter.write(record);
+        long elapsedNanos = System.nanoTime() - startNanos;
+        metrics.recordStage(VerificationMetrics.Stage.PERSIST, outcomeOf(record), statusOf(record), elapsedNanos);
+        // Handed to the write-behind writer, not yet in the database
+        trace.record(RequestTrace.Stage.DB_WRITE, 0, "queued", elapsedNanos);
+    }
+
+    private void markFailed(PANVerificationRecord record, Exception e, RequestTrace trace) {
+        record.setErrorCode("VERIFICATION_FAILED");
+        record.setErrorMessage(truncateErrorMessage(e.getMessage()));
+        record.setResponseTimestamp(LocalDateTime.now());
+        saveCompleted(record, trace);
+    }
+
+    private void applyUpstreamResult(PANVerificationRecord record, PANVerificationResponse apiResponse) {
+        // Error responses carry no status; keep the record's (non-null) placeholder in that case
+        if (apiResponse.getStatus() != null) {
+            record.setStatus(apiResponse.getStatus());
+            record.setAadhaarLinked(apiResponse.getAadhaarLinked());
+        }
+        record.setResponseTimestamp(LocalDateTime.now());
+        record.setErrorCode(apiResponse.getErrorCode());
+        record.setErrorMessage(truncateErrorMessage(apiResponse.getErrorMessage()));
+        // A cache hit made no upstream attempts of its own
+        if (!record.getServedFromCache() && apiResponse.getRetryCount() != null) {
+            record.setRetryCount(apiResponse.getRetryCount());
+        }
+    }
+
+    // Messages come from exceptions and upstream bodies: cut to fit the column, or the insert fails
+    private static String truncateErrorMessage(String message) {
+        return message == null || message.length() <= PANVerificationRecord.ERROR_MESSAGE_MAX_LENGTH
+            ? message
+            : message.substring(0, PANVerificationRecord.ERROR_MESSAGE_MAX_LENGTH);
+    }
+
+    private VerificationPage toPage(List<VerificationSummary> rows, int limit) {
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            nextCursor = VerificationCursor.after(rows.get(limit - 1)).encode();
+        }
+        List<PANVerificationResponse> items = new ArrayList<>(rows.size());
+        for (VerificationSummary row : rows) {
+            items.add(toResponse(row));
+        }
+        return new VerificationPage(items, nextCursor);
+    }
+
+    static PANVerificationResponse convertToResponse(PANVerificationRecord record) {
+        return toResponse(VerificationSummary.of(record));
+    }
+
+    private static PANVerificationResponse toResponse(VerificationSummary record) {
         PANVerificationResponse response = new PANVerificationResponse();
         response.setReferenceNumber(record.getReferenceNumber());
         response.setTransactionId(record.getTransactionId());
         response.setTraceId(record.getTraceId());
-        response.setStatus(record.getStatus());
-        response.setAadhaarLinked(record.getAadhaarLinked());
         response.setTimestamp(record.getCreatedAt());
         response.setErrorCode(record.getErrorCode());
         response.setErrorMessage(record.getErrorMessage());
+        response.setServedFromCache(record.getServedFromCache());
+        response.setRetryCount(record.getRetryCount());
+
+        // No response yet: the stored status is only a placeholder
+        if (record.getResponseTimestamp() == null) {
+            response.setStatus(PANStatus.PENDING);
+            response.setMessage("PAN verification in progress");
+            return response;
+        }
+
+        response.setStatus(record.getStatus());
+        response.setAadhaarLinked(record.getAadhaarLinked());
 
         if (record.getErrorCode() == null) {
             response.setMessage("PAN verification completed successfully");
@@ -198,24 +697,4 @@ public class PANVerificationService {
 
         return response;
     }
-
-    /**
-     * Inner class for verification statistics
-     */
-    public static class VerificationStats {
-        private final Long activeCount;
-        private final Long inactiveCount;
-        private final Long errorCount;
-
-        public VerificationStats(Long activeCount, Long inactiveCount, Long errorCount) {
-            this.activeCount = activeCount;
-            this.inactiveCount = inactiveCount;
-            this.errorCount = errorCount;
-        }
-
-        public Long getActiveCount() { return activeCount; }
-        public Long getInactiveCount() { return inactiveCount; }
-        public Long getErrorCount() { return errorCount; }
-        public Long getTotalCount() { return activeCount + inactiveCount + errorCount; }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,160 @@
+package com.chumani.production.panverification.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Partition Archiver
+ * Exports one monthly partition of pan_verification_records to a gzip-compressed CSV file:
+ * a header row, then one row per record ordered by created_at, with a fixed column per field
+ * (ISO-8601 timestamps, empty for null) so columnar tools can load it without a schema.
+ * A JSON manifest beside it records the month, row count and the file's SHA-256.
+ *
+ * Rows are streamed through a cursor (fetch-size at a time), so memory use does not depend
+ * on the partition size. Both files are written under temporary names and moved into place.
+ */
+@Component
+public class PartitionArchiver {
+
+    static final List<String> COLUMNS = List.of(
+        "id", "pan_number", "pan_key", "name", "status", "aadhaar_linked", "reference_number",
+        "transaction_id", "trace_id", "request_timestamp", "response_timestamp", "persisted_timestamp",
+        "created_at", "updated_at", "error_code", "error_message", "retry_count", "served_from_cache");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${pan.verification.partitioning.retention.archive-dir:./archive}")
+    private String archiveDir;
+
+    @Value("${pan.verification.partitioning.retention.fetch-size:1000}")
+    private int fetchSize;
+
+    // Own template for the fetch size; still joins the caller's transaction (needed for a cursor)
+    private JdbcTemplate streamingTemplate;
+
+    @PostConstruct
+    void init() {
+        streamingTemplate = new JdbcTemplate(dataSource);
+        streamingTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Write the partition's archive and manifest; call inside a transaction
+     */
+    public Archive export(String partition, YearMonth month) throws IOException {
+        Path directory = Paths.get(archiveDir);
+        Files.createDirectories(directory);
+        Path file = directory.resolve(partition + ".csv.gz");
+        Path tempFile = directory.resolve(partition + ".csv.gz.tmp");
+
+        MessageDigest sha256 = newSha256();
+        long[] rows = {0};
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(
+                new DigestOutputStream(Files.newOutputStream(tempFile), sha256), 64 * 1024), StandardCharsets.UTF_8))) {
+            writer.write(String.join(",", COLUMNS));
+            writer.write('\n');
+            streamingTemplate.query("SELECT " + String.join(", ", COLUMNS) + " FROM " + partition
+                                    + " ORDER BY created_at, id", rs -> {
+                try {
+                    for (int i = 1; i <= COLUMNS.size(); i++) {
+                        if (i > 1) {
+                            writer.write(',');
+                        }
+                        writeValue(writer, rs.getObject(i));
+                    }
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e.getCause();
+        } catch (RuntimeException | IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        Map<String, Object> manifest = new LinkedHashMap<>();
+        manifest.put("table", RecordPartitionService.TABLE);
+        manifest.put("partition", partition);
+        manifest.put("from", month.atDay(1).atStartOfDay().toString());
+        manifest.put("to", month.plusMonths(1).atDay(1).atStartOfDay().toString());
+        manifest.put("rows", rows[0]);
+        manifest.put("columns", COLUMNS);
+        manifest.put("file", file.getFileName().toString());
+        manifest.put("format", "csv+gzip");
+        manifest.put("sha256", HexFormat.of().formatHex(sha256.digest()));
+        manifest.put("archivedAt", LocalDateTime.now().toString());
+        Path manifestFile = directory.resolve(partition + ".manifest.json");
+        Path tempManifest = directory.resolve(partition + ".manifest.json.tmp");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(tempManifest.toFile(), manifest);
+        Files.move(tempManifest, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        return new Archive(file, rows[0]);
+    }
+
+    // null is an empty field; an empty string is quoted so the two stay distinguishable
+    private static void writeValue(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value instanceof Timestamp timestamp
+            ? timestamp.toLocalDateTime().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+            : value.toString();
+        if (text.isEmpty() || text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(text);
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A written archive file and the number of records in it
+     */
+    public record Archive(Path file, long rows) {}
+}
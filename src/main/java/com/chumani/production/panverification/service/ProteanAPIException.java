@@ -0,0 +1,24 @@
+package com.chumani.production.panverification.service;
+
+/**
+ * Failure of a single Protean API attempt
+ * Carries whether the attempt may be retried (transient upstream/system errors)
+ */
+public class ProteanAPIException extends RuntimeException {
+
+    private final boolean retryable;
+
+    public ProteanAPIException(String message, boolean retryable) {
+        super(message);
+        this.retryable = retryable;
+    }
+
+    public ProteanAPIException(String message, boolean retryable, Throwable cause) {
+        super(message, cause);
+        this.retryable = retryable;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
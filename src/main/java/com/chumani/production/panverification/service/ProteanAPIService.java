@@ -1,151 +1,753 @@
 package com.chumani.production.panverification.service;
 
 import com.chumani.production.panverification.dto.PANVerificationResponse;
+import com.chumani.production.panverification.dto.ProteanVerificationRequest;
+import com.chumani.production.panverification.dto.ProteanVerificationResponse;
 import com.chumani.production.panverification.enums.PANStatus;
+import com.chumani.production.panverification.util.Deadline;
+import com.chumani.production.panverification.util.PanCodec;
+import com.chumani.production.panverification.util.RequestTrace;
+import com.chumani.production.panverification.util.WorkerThreads;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.ParseException;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Protean API Service
- * Implements business scenarios: even digit = Active, odd digit = Inactive
+ * Calls the Protean verification API over a pooled HTTP client (see ProteanClientConfig);
+ * point protean.api.url at the embedded ProteanStubServer for local runs.
  * Includes retry logic and error handling as per requirements
+ *
+ * Attempts run on a dedicated executor and retries are scheduled after an exponential
+ * backoff with full jitter, so no attempt or scheduler thread sleeps between attempts. Retries
+ * are limited to retryable failures and to a global budget proportional to first attempts.
+ * Synchronous callers (verifyPANWithRetry) still wait on their own thread for the whole
+ * sequence, backoff included; that thread is cheap only in the virtual-thread mode.
+ *
+ * Every attempt goes through a circuit breaker (failure-rate and slow-call-rate thresholds)
+ * and a bulkhead capping concurrent upstream calls. Rejected attempts fail fast with
+ * CIRCUIT_OPEN or UPSTREAM_BULKHEAD_FULL instead of queueing on a struggling upstream.
+ * In front of both, an adaptive concurrency limit tracks upstream latency and overload errors;
+ * attempts over the limit queue briefly and are then shed with UPSTREAM_CONCURRENCY_LIMITED.
+ *
+ * Optionally, an attempt still unanswered after a percentile of recent call latency is hedged:
+ * a second call is fired, the first answer wins and the other call is aborted. Hedges draw on
+ * their own small budget and only use spare limiter capacity, so they add little upstream load.
+ *
+ * Each verification carries its request's Deadline. An attempt only starts with at least
+ * min-attempt time left, a retry only if its backoff leaves that much, and calls still in flight
+ * at the deadline (or when it is cancelled) are aborted. Running out of time ends the
+ * verification with DEADLINE_EXCEEDED, except for a skipped retry, which keeps the last failure.
  */
 @Service
 public class ProteanAPIService {
 
     private static final Logger logger = LoggerFactory.getLogger(ProteanAPIService.class);
-    private static final int MAX_RETRY_ATTEMPTS = 3;
-    private static final long RETRY_DELAY_MS = 1000;
+
+    public static final String CIRCUIT_OPEN = "CIRCUIT_OPEN";
+    public static final String BULKHEAD_FULL = "UPSTREAM_BULKHEAD_FULL";
+    public static final String CONCURRENCY_LIMITED = "UPSTREAM_CONCURRENCY_LIMITED";
+    public static final String DEADLINE_EXCEEDED = "DEADLINE_EXCEEDED";
+
+    // Enough of an error body to tell a JSON error from a gateway page, without keeping either whole
+    private static final int ERROR_BODY_MAX_CHARS = 200;
 
     @Value("${protean.api.url:http://localhost:8082/api/pan/internal/v1/verify}")
     private String proteanApiUrl;
 
-    @Value("${protean.api.timeout:5000}")
-    private int timeoutMs;
+    @Value("${protean.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${protean.retry.base-delay-ms:1000}")
+    private long baseDelayMs;
+
+    @Value("${protean.retry.max-delay-ms:8000}")
+    private long maxDelayMs;
+
+    @Value("${protean.retry.budget.ratio:0.2}")
+    private double retryBudgetRatio;
+
+    @Value("${protean.retry.budget.max-retries:100}")
+    private int retryBudgetMaxRetries;
+
+    // Least time left for an attempt (or a retry, after its backoff) to be worth starting
+    @Value("${protean.deadline.min-attempt-ms:100}")
+    private long minAttemptMs;
+
+    @Value("${protean.api.attempt-threads:64}")
+    private int attemptThreads;
+
+    // Thread per attempt instead of the attempt-threads pool; the bulkhead still caps concurrent calls
+    @Value("${pan.verification.threads.virtual:false}")
+    private boolean virtualThreads;
+
+    @Value("${protean.circuit-breaker.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+
+    @Value("${protean.circuit-breaker.slow-call-rate-threshold:80}")
+    private float slowCallRateThreshold;
+
+    @Value("${protean.circuit-breaker.slow-call-duration:PT4S}")
+    private Duration slowCallDuration;
+
+    @Value("${protean.circuit-breaker.sliding-window-size:50}")
+    private int slidingWindowSize;
+
+    @Value("${protean.circuit-breaker.minimum-number-of-calls:20}")
+    private int minimumNumberOfCalls;
+
+    @Value("${protean.circuit-breaker.wait-duration-in-open-state:PT30S}")
+    private Duration waitDurationInOpenState;
+
+    @Value("${protean.circuit-breaker.permitted-calls-in-half-open-state:5}")
+    private int permittedCallsInHalfOpenState;
+
+    @Value("${protean.bulkhead.max-concurrent-calls:32}")
+    private int bulkheadMaxConcurrentCalls;
+
+    @Value("${protean.limiter.initial-limit:16}")
+    private int limiterInitialLimit;
+
+    @Value("${protean.limiter.min-limit:2}")
+    private int limiterMinLimit;
+
+    @Value("${protean.limiter.max-limit:32}")
+    private int limiterMaxLimit;
+
+    @Value("${protean.limiter.backoff-ratio:0.9}")
+    private double limiterBackoffRatio;
+
+    @Value("${protean.limiter.rtt-tolerance:1.5}")
+    private double limiterRttTolerance;
+
+    @Value("${protean.limiter.max-queue:200}")
+    private int limiterMaxQueue;
+
+    @Value("${protean.limiter.max-wait-ms:500}")
+    private long limiterMaxWaitMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${protean.hedging.enabled:false}")
+    private boolean hedgingEnabled;
+
+    @Value("${protean.hedging.percentile:95}")
+    private double hedgePercentile;
+
+    @Value("${protean.hedging.min-delay-ms:50}")
+    private long hedgeMinDelayMs;
+
+    @Value("${protean.hedging.window-size:1000}")
+    private int hedgeWindowSize;
+
+    @Value("${protean.hedging.min-samples:50}")
+    private int hedgeMinSamples;
+
+    @Value("${protean.hedging.budget.ratio:0.05}")
+    private double hedgeBudgetRatio;
+
+    @Value("${protean.hedging.budget.max-hedges:20}")
+    private int hedgeBudgetMaxHedges;
+
+    @Autowired
+    private CloseableHttpClient proteanHttpClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private VerificationMetrics metrics;
+
+    private ExecutorService attemptExecutor;
+    private ScheduledExecutorService retryScheduler;
+    private RetryBudget retryBudget;
+    private Counter retries;
+    private Counter retryBudgetExhausted;
+    private CircuitBreaker circuitBreaker;
+    private Bulkhead bulkhead;
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private Counter concurrencyLimited;
+    private LatencyTracker recentLatency;
+    private RetryBudget hedgeBudget;
+    private Counter hedgesFired;
+    private Counter hedgesWon;
+    private Counter hedgeBudgetExhausted;
+
+    @PostConstruct
+    void init() {
+        ThreadFactory attemptThreadFactory = WorkerThreads.factory("protean-attempt-", virtualThreads);
+        attemptExecutor = virtualThreads
+            ? Executors.newThreadPerTaskExecutor(attemptThreadFactory)
+            : Executors.newFixedThreadPool(attemptThreads, attemptThreadFactory);
+        // Only fires timers and hands work on, so one platform thread in either mode
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(WorkerThreads.factory("protean-retry-", false));
+        retryBudget = new RetryBudget(retryBudgetRatio, retryBudgetMaxRetries);
+
+        retries = Counter.builder("pan.upstream.retries")
+            .description("Upstream retry attempts scheduled")
+            .register(meterRegistry);
+        retryBudgetExhausted = Counter.builder("pan.upstream.retry.budget.exhausted")
+            .description("Retryable upstream failures not retried because the retry budget was empty")
+            .register(meterRegistry);
+        meterRegistry.gauge("pan.upstream.retry.budget.available", retryBudget, RetryBudget::getAvailableRetries);
 
-    private final RestTemplate restTemplate;
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .failureRateThreshold(failureRateThreshold)
+            .slowCallRateThreshold(slowCallRateThreshold)
+            .slowCallDurationThreshold(slowCallDuration)
+            .slidingWindowSize(slidingWindowSize)
+            .minimumNumberOfCalls(minimumNumberOfCalls)
+            .waitDurationInOpenState(waitDurationInOpenState)
+            .permittedNumberOfCallsInHalfOpenState(permittedCallsInHalfOpenState)
+            .automaticTransitionFromOpenToHalfOpenEnabled(true)
+            .build());
+        circuitBreaker = circuitBreakerRegistry.circuitBreaker("protean");
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            logger.warn("Protean circuit breaker transition: {}", event.getStateTransition());
+            Counter.builder("pan.upstream.circuit.transitions")
+                .description("Protean circuit breaker state transitions")
+                .tag("from", event.getStateTransition().getFromState().name())
+                .tag("to", event.getStateTransition().getToState().name())
+                .register(meterRegistry)
+                .increment();
+        });
 
-    public ProteanAPIService() {
-        this.restTemplate = new RestTemplate();
+        BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+            .maxConcurrentCalls(bulkheadMaxConcurrentCalls)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+        bulkhead = bulkheadRegistry.bulkhead("protean");
+
+        // resilience4j.circuitbreaker.state, resilience4j.bulkhead.available.concurrent.calls, ...
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+
+        concurrencyLimiter = new AdaptiveConcurrencyLimiter(limiterInitialLimit, limiterMinLimit, limiterMaxLimit,
+            limiterBackoffRatio, limiterRttTolerance, limiterMaxQueue, limiterMaxWaitMs);
+        meterRegistry.gauge("pan.upstream.limiter.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit);
+        meterRegistry.gauge("pan.upstream.limiter.in.flight", concurrencyLimiter, AdaptiveConcurrencyLimiter::getInFlight);
+        meterRegistry.gauge("pan.upstream.limiter.queue.depth", concurrencyLimiter, AdaptiveConcurrencyLimiter::getQueueDepth);
+        concurrencyLimited = Counter.builder("pan.upstream.limiter.rejected")
+            .description("Upstream attempts shed by the adaptive concurrency limiter")
+            .register(meterRegistry);
+
+        recentLatency = new LatencyTracker(hedgeWindowSize, hedgePercentile, hedgeMinSamples);
+        hedgeBudget = new RetryBudget(hedgeBudgetRatio, hedgeBudgetMaxHedges);
+        hedgesFired = Counter.builder("pan.upstream.hedges.fired")
+            .description("Hedge calls sent because the first call was slower than the hedge delay")
+            .register(meterRegistry);
+        hedgesWon = Counter.builder("pan.upstream.hedges.won")
+            .description("Hedge calls that answered before the call they hedged")
+            .register(meterRegistry);
+        hedgeBudgetExhausted = Counter.builder("pan.upstream.hedge.budget.exhausted")
+            .description("Hedges not sent because the hedge budget was empty")
+            .register(meterRegistry);
+        meterRegistry.gauge("pan.upstream.hedge.budget.available", hedgeBudget, RetryBudget::getAvailableRetries);
+        meterRegistry.gauge("pan.upstream.hedge.delay.ms", recentLatency, LatencyTracker::getPercentileMillis);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        retryScheduler.shutdownNow();
+        attemptExecutor.shutdownNow();
     }
 
     /**
-     * Verify PAN with retry logic
+     * Verify PAN with retry logic, waiting for the final outcome.
+     * Blocks the calling thread through every attempt and backoff, up to the deadline; the
+     * request, batch and async paths all call this. Each attempt and retry backoff is also
+     * recorded into the request trace.
      */
-    public PANVerificationResponse verifyPANWithRetry(String pan, String name, String traceId) {
-        int attempt = 1;
-        Exception lastException = null;
+    public PANVerificationResponse verifyPANWithRetry(String pan, String name, String traceId, RequestTrace trace,
+                                                      Deadline deadline) {
+        try {
+            return verifyPANAsync(pan, name, traceId, trace, deadline).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Verification interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Verification failed", e.getCause());
+        }
+    }
 
-        while (attempt <= MAX_RETRY_ATTEMPTS) {
-            try {
-                logger.info("PAN verification attempt {} - TraceId: {}, PAN: {}",
-                           attempt, traceId, maskPAN(pan));
+    /**
+     * Verify PAN with retry logic without blocking the caller.
+     * The future always completes normally; upstream failures become API_FAILURE responses.
+     */
+    public CompletableFuture<PANVerificationResponse> verifyPANAsync(String pan, String name, String traceId,
+                                                                     RequestTrace trace, Deadline deadline) {
+        CompletableFuture<PANVerificationResponse> result = new CompletableFuture<>();
+        retryBudget.recordFirstAttempt();
+        hedgeBudget.recordFirstAttempt();
+        runAttempt(pan, name, traceId, trace, deadline, 1, result);
+        return result;
+    }
+
+    private void runAttempt(String pan, String name, String traceId, RequestTrace trace, Deadline deadline,
+                            int attempt, CompletableFuture<PANVerificationResponse> result) {
+        long startNanos = System.nanoTime();
+        if (deadline.remainingNanos() < TimeUnit.MILLISECONDS.toNanos(minAttemptMs)) {
+            metrics.recordDeadlineExceeded(attempt == 1
+                ? VerificationMetrics.DeadlinePhase.ADMISSION : VerificationMetrics.DeadlinePhase.ATTEMPT);
+            logger.warn("Request deadline too close, not starting attempt {} - TraceId: {}", attempt, traceId);
+            result.complete(deadlineExceededResponse(attempt - 1));
+            return;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("PAN verification attempt {} - TraceId: {}, PAN: {}", attempt, traceId, PanCodec.mask(pan));
+        }
+
+        concurrencyLimiter.acquire().whenComplete((permit, rejection) -> {
+            if (rejection != null) {
+                concurrencyLimited.increment();
+                recordAttempt(trace, attempt, VerificationMetrics.AttemptOutcome.REJECTED, null, startNanos);
+                logger.warn("Protean concurrency limit reached, shedding attempt - TraceId: {}", traceId);
+                result.complete(rejectedResponse(CONCURRENCY_LIMITED,
+                    "Protean concurrency limit reached", attempt));
+                return;
+            }
+            executeAttempt(pan, name, traceId, trace, deadline, attempt, result, permit, startNanos);
+        });
+    }
+
+    private void executeAttempt(String pan, String name, String traceId, RequestTrace trace, Deadline deadline,
+                                int attempt, CompletableFuture<PANVerificationResponse> result,
+                                AdaptiveConcurrencyLimiter.Permit permit, long startNanos) {
+        // Queued behind the limiter past the deadline
+        if (deadline.isExpired()) {
+            permit.ignore();
+            recordAttempt(trace, attempt, VerificationMetrics.AttemptOutcome.REJECTED, null, startNanos);
+            metrics.recordDeadlineExceeded(VerificationMetrics.DeadlinePhase.ATTEMPT);
+            result.complete(deadlineExceededResponse(attempt - 1));
+            return;
+        }
+        String rejection = tryAcquireCallPermission(permit);
+        if (rejection != null) {
+            recordAttempt(trace, attempt, VerificationMetrics.AttemptOutcome.REJECTED, null, startNanos);
+        }
+        if (CIRCUIT_OPEN.equals(rejection)) {
+            logger.warn("Protean circuit breaker is {}, failing fast - TraceId: {}", circuitBreaker.getState(), traceId);
+            result.complete(rejectedResponse(CIRCUIT_OPEN, "Protean circuit breaker is open", attempt));
+            return;
+        }
+        if (BULKHEAD_FULL.equals(rejection)) {
+            logger.warn("Protean bulkhead full, failing fast - TraceId: {}", traceId);
+            result.complete(rejectedResponse(BULKHEAD_FULL, "Too many concurrent Protean calls", attempt));
+            return;
+        }
 
-                PANVerificationResponse response = verifyPAN(pan, name, traceId);
+        // First successful call wins; the attempt fails only once every call it started has failed
+        CompletableFuture<PANVerificationResponse> attemptResult = new CompletableFuture<>();
+        List<UpstreamCall> calls = new CopyOnWriteArrayList<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        UpstreamCall primary = startCall(pan, name, traceId, permit, false);
+        calls.add(primary);
+        settleOnCompletion(primary, calls, outstanding, attemptResult);
+        if (hedgingEnabled) {
+            scheduleHedge(pan, name, traceId, calls, outstanding, attemptResult);
+        }
+        abortAtDeadline(deadline, calls, attemptResult);
 
-                logger.info("PAN verification successful on attempt {} - TraceId: {}, Status: {}",
+        attemptResult.whenComplete((response, failure) -> {
+            if (failure == null) {
+                recordAttempt(trace, attempt, VerificationMetrics.AttemptOutcome.SUCCESS, response.getStatus(), startNanos);
+                logger.debug("PAN verification successful on attempt {} - TraceId: {}, Status: {}",
                            attempt, traceId, response.getStatus());
+                response.setRetryCount(attempt - 1);
+                result.complete(response);
+                return;
+            }
 
-                return response;
+            recordAttempt(trace, attempt, VerificationMetrics.AttemptOutcome.FAILURE, null, startNanos);
+            if (deadline.isExpired()) {
+                metrics.recordDeadlineExceeded(VerificationMetrics.DeadlinePhase.IN_FLIGHT);
+                logger.warn("Request deadline reached, abandoned attempt {} - TraceId: {}", attempt, traceId);
+                result.complete(deadlineExceededResponse(attempt - 1));
+                return;
+            }
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+            logger.warn("PAN verification failed on attempt {} - TraceId: {}, Error: {}",
+                       attempt, traceId, cause.getMessage());
 
-            } catch (Exception e) {
-                lastException = e;
-                logger.warn("PAN verification failed on attempt {} - TraceId: {}, Error: {}",
-                           attempt, traceId, e.getMessage());
+            if (!isRetryable(cause) || attempt >= maxAttempts) {
+                logger.error("PAN verification failed after {} attempts - TraceId: {}", attempt, traceId);
+                result.complete(failureResponse(attempt, cause));
+                return;
+            }
+            long delayMs = backoffDelayMs(attempt);
+            if (deadline.remainingNanos() < TimeUnit.MILLISECONDS.toNanos(delayMs + minAttemptMs)) {
+                metrics.recordDeadlineExceeded(VerificationMetrics.DeadlinePhase.BACKOFF);
+                logger.warn("Request deadline too close to retry after {} ms - TraceId: {}", delayMs, traceId);
+                result.complete(failureResponse(attempt, cause));
+                return;
+            }
+            if (!retryBudget.tryAcquireRetry()) {
+                logger.warn("Retry budget exhausted, not retrying - TraceId: {}", traceId);
+                retryBudgetExhausted.increment();
+                result.complete(failureResponse(attempt, cause));
+                return;
+            }
 
-                if (attempt < MAX_RETRY_ATTEMPTS) {
-                    try {
-                        Thread.sleep(RETRY_DELAY_MS * attempt); // Exponential backoff
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException("Retry interrupted", ie);
+            retries.increment();
+            long failedNanos = System.nanoTime();
+            try {
+                retryScheduler.schedule(() -> {
+                    long backoffNanos = System.nanoTime() - failedNanos;
+                    metrics.recordRetryBackoff(backoffNanos);
+                    trace.record(RequestTrace.Stage.BACKOFF, attempt, null, backoffNanos);
+                    runAttempt(pan, name, traceId, trace, deadline, attempt + 1, result);
+                }, delayMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                result.complete(failureResponse(attempt, cause));
+            }
+        });
+    }
+
+    private void recordAttempt(RequestTrace trace, int attempt, VerificationMetrics.AttemptOutcome outcome,
+                               PANStatus status, long startNanos) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        metrics.recordAttempt(outcome, status, elapsedNanos);
+        String description = switch (outcome) {
+            case SUCCESS -> "success";
+            case FAILURE -> "failure";
+            case REJECTED -> "rejected";
+        };
+        trace.record(RequestTrace.Stage.ATTEMPT, attempt, description, elapsedNanos);
+    }
+
+    /**
+     * Take circuit breaker and bulkhead permission for one upstream call.
+     * Returns the rejecting error code, after releasing the limiter permit, or null when permitted.
+     */
+    private String tryAcquireCallPermission(AdaptiveConcurrencyLimiter.Permit permit) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            permit.ignore();
+            return CIRCUIT_OPEN;
+        }
+        if (!bulkhead.tryAcquirePermission()) {
+            permit.ignore();
+            circuitBreaker.releasePermission();
+            return BULKHEAD_FULL;
+        }
+        return null;
+    }
+
+    // Give back the permissions of a call that was permitted but never started
+    private void releaseCallPermission(AdaptiveConcurrencyLimiter.Permit permit) {
+        permit.ignore();
+        bulkhead.onComplete();
+        circuitBreaker.releasePermission();
+    }
+
+    /**
+     * Start one permitted upstream call on the attempt executor and record its outcome with the
+     * bulkhead, circuit breaker, limiter and latency window. Aborted calls record nothing.
+     */
+    private UpstreamCall startCall(String pan, String name, String traceId,
+                                   AdaptiveConcurrencyLimiter.Permit permit, boolean hedge) {
+        UpstreamCall call = new UpstreamCall(new HttpPost(proteanApiUrl), hedge);
+        long startNanos = System.nanoTime();
+        CompletableFuture<PANVerificationResponse> callFuture;
+        try {
+            callFuture = CompletableFuture.supplyAsync(() -> verifyPAN(pan, name, traceId, call.request),
+                attemptExecutor);
+        } catch (RejectedExecutionException e) {
+            releaseCallPermission(permit);
+            call.future.completeExceptionally(e);
+            return call;
+        }
+
+        callFuture.whenComplete((response, failure) -> {
+            bulkhead.onComplete();
+            long elapsedNanos = System.nanoTime() - startNanos;
+
+            if (failure == null) {
+                permit.onComplete();
+                circuitBreaker.onSuccess(elapsedNanos, TimeUnit.NANOSECONDS);
+                recentLatency.record(elapsedNanos);
+                call.future.complete(response);
+                return;
+            }
+
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+            if (call.request.isCancelled()) {
+                // Lost to the other call: says nothing about upstream health
+                permit.ignore();
+                circuitBreaker.releasePermission();
+            } else {
+                circuitBreaker.onError(elapsedNanos, TimeUnit.NANOSECONDS, cause);
+                if (isRetryable(cause)) {
+                    permit.onOverload();
+                } else {
+                    permit.onComplete();
+                }
+            }
+            call.future.completeExceptionally(cause);
+        });
+        return call;
+    }
+
+    private void settleOnCompletion(UpstreamCall call, List<UpstreamCall> calls, AtomicInteger outstanding,
+                                    CompletableFuture<PANVerificationResponse> attemptResult) {
+        call.future.whenComplete((response, failure) -> {
+            if (failure == null) {
+                if (attemptResult.complete(response)) {
+                    if (call.hedge) {
+                        hedgesWon.increment();
+                    }
+                    for (UpstreamCall other : calls) {
+                        if (other != call) {
+                            other.request.cancel();
+                        }
                     }
                 }
-                attempt++;
+            } else if (outstanding.decrementAndGet() == 0) {
+                attemptResult.completeExceptionally(failure);
             }
+        });
+    }
+
+    /**
+     * Fire a second call if the attempt is still unanswered after the hedge delay (the tracked
+     * percentile of recent call latency). No hedging until enough latencies were recorded.
+     */
+    private void scheduleHedge(String pan, String name, String traceId, List<UpstreamCall> calls,
+                               AtomicInteger outstanding, CompletableFuture<PANVerificationResponse> attemptResult) {
+        long percentileNanos = recentLatency.getPercentileNanos();
+        if (percentileNanos < 0 || attemptResult.isDone()) {
+            return;
         }
+        long delayMs = Math.max(hedgeMinDelayMs, TimeUnit.NANOSECONDS.toMillis(percentileNanos));
+
+        ScheduledFuture<?> timer;
+        try {
+            timer = retryScheduler.schedule(() -> fireHedge(pan, name, traceId, calls, outstanding, attemptResult),
+                delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            return;
+        }
+        attemptResult.whenComplete((response, failure) -> timer.cancel(false));
+    }
 
-        logger.error("PAN verification failed after {} attempts - TraceId: {}",
-                    MAX_RETRY_ATTEMPTS, traceId);
+    private void fireHedge(String pan, String name, String traceId, List<UpstreamCall> calls,
+                           AtomicInteger outstanding, CompletableFuture<PANVerificationResponse> attemptResult) {
+        if (attemptResult.isDone()) {
+            return;
+        }
+        // Only hedge into spare capacity: never queue behind, or displace, first attempts
+        AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiter.tryAcquire();
+        if (permit == null) {
+            return;
+        }
+        // Budget is only spent on hedges the circuit breaker and bulkhead let through
+        if (tryAcquireCallPermission(permit) != null) {
+            return;
+        }
+        if (!hedgeBudget.tryAcquireRetry()) {
+            releaseCallPermission(permit);
+            hedgeBudgetExhausted.increment();
+            return;
+        }
+        // Join the attempt unless its last call already failed in the meantime
+        if (outstanding.getAndUpdate(count -> count == 0 ? 0 : count + 1) == 0) {
+            releaseCallPermission(permit);
+            hedgeBudget.refund();
+            return;
+        }
 
-        // Create error response
+        hedgesFired.increment();
+        logger.info("Hedging slow PAN verification call - TraceId: {}", traceId);
+        UpstreamCall hedge = startCall(pan, name, traceId, permit, true);
+        calls.add(hedge);
+        settleOnCompletion(hedge, calls, outstanding, attemptResult);
+        if (attemptResult.isDone()) {
+            hedge.request.cancel();
+        }
+    }
+
+    /**
+     * Abort the attempt's calls if it is still unanswered at the deadline or when the deadline is
+     * cancelled. Aborted calls count as neither success nor failure of the upstream.
+     */
+    private void abortAtDeadline(Deadline deadline, List<UpstreamCall> calls,
+                                 CompletableFuture<PANVerificationResponse> attemptResult) {
+        if (!deadline.isBounded()) {
+            return;
+        }
+        Runnable abort = () -> {
+            if (!attemptResult.isDone()) {
+                calls.forEach(call -> call.request.cancel());
+            }
+        };
+        Runnable deregister = deadline.onCancel(abort);
+        ScheduledFuture<?> timer;
+        try {
+            timer = retryScheduler.schedule(abort, deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            timer = null;
+        }
+        ScheduledFuture<?> scheduled = timer;
+        // Once answered there is nothing to abort; drop the action so retries don't pile them up
+        attemptResult.whenComplete((response, failure) -> {
+            deregister.run();
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        });
+    }
+
+    // Exponential backoff with full jitter: uniform in [0, min(max, base * 2^(attempt-1))]
+    private long backoffDelayMs(int attempt) {
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private boolean isRetryable(Throwable failure) {
+        return failure instanceof ProteanAPIException proteanFailure && proteanFailure.isRetryable();
+    }
+
+    private PANVerificationResponse failureResponse(int attempts, Throwable lastFailure) {
         PANVerificationResponse errorResponse = new PANVerificationResponse();
         errorResponse.setErrorCode("API_FAILURE");
-        errorResponse.setErrorMessage("Failed after " + MAX_RETRY_ATTEMPTS + " attempts: " +
-                                    (lastException != null ? lastException.getMessage() : "Unknown error"));
+        errorResponse.setErrorMessage("Failed after " + attempts + " attempts: " +
+                                    (lastFailure != null ? lastFailure.getMessage() : "Unknown error"));
+        errorResponse.setRetryCount(attempts - 1);
         errorResponse.setTimestamp(LocalDateTime.now());
 
         return errorResponse;
     }
 
-    /**
-     * Single PAN verification attempt
-     * Implements business logic from prompts:
-     * - Even digit ending = Active
-     * - Odd digit ending = Inactive
-     * - ZZZ prefix = Error simulation
-     * - Ending with 9 = Delay simulation
-     */
-    private PANVerificationResponse verifyPAN(String pan, String name, String traceId) {
+    static PANVerificationResponse deadlineExceededResponse(int retries) {
+        PANVerificationResponse errorResponse = new PANVerificationResponse();
+        errorResponse.setErrorCode(DEADLINE_EXCEEDED);
+        errorResponse.setErrorMessage("Request deadline exceeded before Protean answered");
+        errorResponse.setRetryCount(retries);
+        errorResponse.setTimestamp(LocalDateTime.now());
 
-        // Business scenario: ZZZ prefix causes error (from mock.txt)
-        if (pan.startsWith("ZZZ")) {
-            logger.info("Simulating error for PAN starting with ZZZ - TraceId: {}", traceId);
-            throw new RuntimeException("Simulated system error for PAN starting with ZZZ");
-        }
+        return errorResponse;
+    }
 
-        // Business scenario: Ending with 9 causes delay (from mock.txt)
-        if (pan.endsWith("9")) {
-            logger.info("Simulating delay for PAN ending with 9 - TraceId: {}", traceId);
-            try {
-                Thread.sleep(5000); // 5 second delay as per requirements
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException("Delay simulation interrupted", e);
+    private PANVerificationResponse rejectedResponse(String errorCode, String errorMessage, int attempt) {
+        PANVerificationResponse errorResponse = new PANVerificationResponse();
+        errorResponse.setErrorCode(errorCode);
+        errorResponse.setErrorMessage(errorMessage);
+        errorResponse.setRetryCount(attempt - 1);
+        errorResponse.setTimestamp(LocalDateTime.now());
+
+        return errorResponse;
+    }
+
+    /**
+     * Single PAN verification call against the Protean API.
+     * Connection failures, timeouts, 5xx and 429 are retryable; other 4xx are not.
+     * Cancelling the request aborts the exchange and fails the call as non-retryable.
+     */
+    private PANVerificationResponse verifyPAN(String pan, String name, String traceId, HttpPost request) {
+        ProteanVerificationResponse upstream;
+        try {
+            request.setEntity(new ByteArrayEntity(
+                objectMapper.writeValueAsBytes(new ProteanVerificationRequest(pan, name, traceId)),
+                ContentType.APPLICATION_JSON));
+            upstream = proteanHttpClient.execute(request, this::readUpstreamResponse);
+        } catch (IOException e) {
+            if (request.isCancelled()) {
+                throw new ProteanAPIException("Protean call cancelled", false, e);
             }
+            throw new ProteanAPIException("Protean API unreachable: " + e.getMessage(), true, e);
+        }
+        if (upstream == null || upstream.getStatus() == null) {
+            throw new ProteanAPIException("Protean API returned no status", true);
         }
 
-        // Extract last digit for business logic
-        char lastDigit = pan.charAt(pan.length() - 1);
-
+        // Protean's transaction id is not carried over: records and responses use our own
         PANVerificationResponse response = new PANVerificationResponse();
-        response.setTransactionId("TXN" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
         response.setTraceId(traceId);
         response.setTimestamp(LocalDateTime.now());
-
-        // Business logic from prompts: Even digit = Active, Odd digit = Inactive
-        if (Character.isDigit(lastDigit)) {
-            int digit = Character.getNumericValue(lastDigit);
-            if (digit % 2 == 0) {
-                // Even digit = Active
-                response.setStatus(PANStatus.ACTIVE);
-                response.setAadhaarLinked(true);
-                logger.info("PAN ends with even digit ({}), setting status to ACTIVE - TraceId: {}",
-                           digit, traceId);
-            } else {
-                // Odd digit = Inactive
-                response.setStatus(PANStatus.INACTIVE);
-                response.setAadhaarLinked(false);
-                logger.info("PAN ends with odd digit ({}), setting status to INACTIVE - TraceId: {}",
-                           digit, traceId);
-            }
-        } else {
-            // Non-digit ending (shouldn't happen with proper validation)
-            response.setStatus(PANStatus.INACTIVE);
-            response.setAadhaarLinked(false);
-            logger.warn("PAN ends with non-digit character, setting status to INACTIVE - TraceId: {}", traceId);
+        try {
+            response.setStatus(PANStatus.fromString(upstream.getStatus()));
+        } catch (IllegalArgumentException e) {
+            throw new ProteanAPIException(e.getMessage(), false, e);
         }
+        response.setAadhaarLinked(upstream.getAadhaarLinked());
 
         return response;
     }
 
-    private String maskPAN(String pan) {
-        if (pan == null || pan.length() != 10) return "INVALID_PAN";
-        return "XXXX" + pan.substring(4, 8) + pan.substring(9);
+    private ProteanVerificationResponse readUpstreamResponse(ClassicHttpResponse response) throws IOException {
+        int statusCode = response.getCode();
+        if (statusCode >= 200 && statusCode < 300) {
+            return response.getEntity() != null
+                ? objectMapper.readValue(response.getEntity().getContent(), ProteanVerificationResponse.class)
+                : null;
+        }
+
+        String body;
+        try {
+            body = response.getEntity() != null
+                ? EntityUtils.toString(response.getEntity(), ERROR_BODY_MAX_CHARS).strip().replaceAll("\\s+", " ")
+                : "";
+        } catch (ParseException e) {
+            body = "";
+        }
+        boolean retryable = statusCode >= 500 || statusCode == 429;
+        throw new ProteanAPIException("Protean API returned " + statusCode + (body.isEmpty() ? "" : ": " + body),
+            retryable);
+    }
+
+    /**
+     * One upstream HTTP exchange of an attempt; hedged attempts have two
+     */
+    private static final class UpstreamCall {
+
+        private final HttpPost request;
+        private final boolean hedge;
+        private final CompletableFuture<PANVerificationResponse> future = new CompletableFuture<>();
+
+        private UpstreamCall(HttpPost request, boolean hedge) {
+            this.request = request;
+            this.hedge = hedge;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,198 @@
+package com.chumani.production.panverification.service;
+
+import com.chumani.production.panverification.entity.RollupWatermark;
+import com.chumani.production.panverification.repository.RollupWatermarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Record Partition Service
+ * Keeps the monthly range partitions of pan_verification_records (PostgreSQL, Flyway V5):
+ * the maintenance job creates the partitions for the current and next months-ahead months, and
+ * the retention job archives partitions older than the retention period to disk and drops them.
+ * Does nothing on other databases; the default H2 schema is not partitioned.
+ *
+ * A partition is only dropped once the rollups have folded its whole month, so reports still
+ * cover archived months, and only in the transaction that wrote its archive: writes to it are
+ * blocked meanwhile, and a failed export leaves the partition in place for the next run.
+ */
+@Service
+public class RecordPartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecordPartitionService.class);
+
+    static final String TABLE = "pan_verification_records";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile(TABLE + "_y(\\d{4})m(\\d{2})");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'_y'yyyy'm'MM");
+
+    // pg_try_advisory_xact_lock key: one instance archives at a time
+    private static final long RETENTION_LOCK_KEY = 0x50414E5F52455445L;
+
+    private static final String PARTITIONS_QUERY = """
+        SELECT c.relname FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        JOIN pg_class p ON p.oid = i.inhparent
+        WHERE p.relname = ? AND p.relnamespace = current_schema()::regnamespace
+        """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PartitionArchiver archiver;
+
+    @Autowired
+    private RollupWatermarkRepository watermarkRepository;
+
+    @Value("${pan.verification.partitioning.enabled:false}")
+    private boolean enabled;
+
+    @Value("${pan.verification.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${pan.verification.partitioning.retention.enabled:true}")
+    private boolean retentionEnabled;
+
+    // Whole months kept before the current one
+    @Value("${pan.verification.partitioning.retention.months:12}")
+    private int retentionMonths;
+
+    private volatile boolean active;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            logger.warn("Record partitioning is enabled but the database is {}, not PostgreSQL; ignoring", database);
+            return;
+        }
+        active = true;
+        maintainPartitions();
+    }
+
+    /**
+     * Create any missing partitions from the current month to months-ahead months out
+     */
+    @Scheduled(cron = "${pan.verification.partitioning.maintenance-cron:0 15 2 * * *}")
+    public void maintainPartitions() {
+        if (!active) {
+            return;
+        }
+        Map<YearMonth, String> existing = findPartitions();
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (existing.containsKey(month)) {
+                continue;
+            }
+            String partition = partitionName(month);
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + TABLE
+                    + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+                logger.info("Created partition {}", partition);
+            } catch (Exception e) {
+                // e.g. the default partition already holds rows for that month
+                logger.error("Could not create partition {}: {}", partition, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Archive and drop partitions whose month is past the retention period
+     */
+    @Scheduled(cron = "${pan.verification.partitioning.retention.cron:0 45 2 * * *}")
+    public void archiveExpiredPartitions() {
+        if (!active || !retentionEnabled) {
+            return;
+        }
+        YearMonth oldestKept = YearMonth.now().minusMonths(retentionMonths);
+        LocalDateTime rolledUpTo = watermarkRepository.findById(VerificationRollupService.WATERMARK_NAME)
+            .map(RollupWatermark::getWatermark)
+            .orElse(LocalDateTime.MIN);
+
+        for (Map.Entry<YearMonth, String> partition : findPartitions().entrySet()) {
+            YearMonth month = partition.getKey();
+            if (!month.isBefore(oldestKept)) {
+                break;
+            }
+            if (rolledUpTo.isBefore(month.plusMonths(1).atDay(1).atStartOfDay())) {
+                logger.warn("Partition {} is past retention but not fully rolled up yet, keeping it", partition.getValue());
+                break;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> archiveAndDrop(partition.getValue(), month));
+            } catch (Exception e) {
+                logger.error("Could not archive partition {}: {}", partition.getValue(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void archiveAndDrop(String partition, YearMonth month) {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, RETENTION_LOCK_KEY))) {
+            logger.info("Another instance is archiving partitions, skipping {}", partition);
+            return;
+        }
+        if (jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NULL", Boolean.class, partition)) {
+            return;
+        }
+        // Reads go on; late writes wait, then fail once the partition is gone
+        jdbcTemplate.execute("LOCK TABLE " + partition + " IN SHARE MODE");
+
+        PartitionArchiver.Archive archive;
+        try {
+            archive = archiver.export(partition, month);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long rows = jdbcTemplate.queryForObject("SELECT count(*) FROM " + partition, Long.class);
+        if (rows != archive.rows()) {
+            throw new IllegalStateException("Archived " + archive.rows() + " of " + rows + " rows");
+        }
+        jdbcTemplate.execute("DROP TABLE " + partition);
+        logger.info("Archived {} records of partition {} to {} and dropped it", rows, partition, archive.file());
+    }
+
+    // Monthly partitions by month, oldest first (the default partition is skipped)
+    private Map<YearMonth, String> findPartitions() {
+        Map<YearMonth, String> partitions = new TreeMap<>();
+        for (String name : jdbcTemplate.queryForList(PARTITIONS_QUERY, String.class, TABLE)) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (matcher.matches()) {
+                partitions.put(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))), name);
+            }
+        }
+        return partitions;
+    }
+
+    static String partitionName(YearMonth month) {
+        return TABLE + month.format(PARTITION_SUFFIX);
+    }
+}
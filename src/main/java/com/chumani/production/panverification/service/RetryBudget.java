@@ -0,0 +1,50 @@
+package com.chumani.production.panverification.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retry Budget
+ * Token bucket that caps retries at a fraction of first attempts: every first attempt
+ * deposits {@code ratio} of a token, every retry withdraws a whole one. The balance is
+ * capped so a long quiet period cannot bank an unbounded retry storm.
+ */
+public class RetryBudget {
+
+    private static final long TOKEN = 1000;
+
+    private final long depositPerAttempt;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    public RetryBudget(double ratio, int maxRetries) {
+        this.depositPerAttempt = Math.round(ratio * TOKEN);
+        this.maxBalance = maxRetries * TOKEN;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    public void recordFirstAttempt() {
+        balance.accumulateAndGet(depositPerAttempt, (current, deposit) -> Math.min(maxBalance, current + deposit));
+    }
+
+    public boolean tryAcquireRetry() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    /**
+     * Return the token of a retry that was acquired but not made
+     */
+    public void refund() {
+        balance.accumulateAndGet(TOKEN, (current, token) -> Math.min(maxBalance, current + token));
+    }
+
+    public double getAvailableRetries() {
+        return (double) balance.get() / TOKEN;
+    }
+}
@@ -1,68 +1,130 @@
 package com.chumani.production.panverification.service;
 
+import com.chumani.production.panverification.entity.PANVerificationRecord;
+import com.chumani.production.panverification.enums.AuditEntryType;
+import com.chumani.production.panverification.journal.AuditJournal;
+import com.chumani.production.panverification.util.PanCodec;
+import com.chumani.production.panverification.util.RequestTrace;
+import com.chumani.production.panverification.util.SnowflakeIdGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import java.util.UUID;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 
 /**
  * Trace Service for audit logging and traceability
- * Implements secure logging with PII masking as per requirements
+ * Audit entries go to the audit journal (masked PAN, no name), off the request thread;
+ * the same events are logged at DEBUG only.
  */
 @Service
 public class TraceService {
 
     private static final Logger logger = LoggerFactory.getLogger(TraceService.class);
-    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    public static final String TRACE_PREFIX = "TRACE-";
+
+    // Longest incoming trace id taken as ours (fits the audit journal and the trace_id column)
+    public static final int MAX_TRACE_ID_LENGTH = 40;
+
+    @Autowired
+    private SnowflakeIdGenerator idGenerator;
+
+    @Autowired
+    private AuditJournal auditJournal;
 
     /**
-     * Generate unique trace ID for request tracking
+     * Generate unique trace ID for request tracking (time-ordered: the generation time is encoded)
      */
     public String generateTraceId() {
-        String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMAT);
-        String uuid = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        return "TRACE-" + timestamp + "-" + uuid;
+        return idGenerator.nextId(TRACE_PREFIX);
     }
 
     /**
-     * Log PAN verification request with PII masking
+     * The request's trace id, or a new one for work not started by a traced request
      */
-    public void logVerificationRequest(String traceId, String pan, String name, String referenceNumber) {
-        logger.info("PAN Verification Request - TraceId: {}, ReferenceNumber: {}, PAN: {}, Name: {}",
-                   traceId, referenceNumber, maskPAN(pan), maskName(name));
+    public String traceIdOf(RequestTrace trace) {
+        return trace.getTraceId() != null ? trace.getTraceId() : generateTraceId();
     }
 
     /**
-     * Log PAN verification response with PII masking
+     * Whether a caller-supplied trace id can be used as is: 1-40 letters, digits, '-', '_', '.' or ':'
      */
-    public void logVerificationResponse(String traceId, String referenceNumber, String status, Boolean aadhaarLinked) {
-        logger.info("PAN Verification Response - TraceId: {}, ReferenceNumber: {}, Status: {}, AadhaarLinked: {}",
-                   traceId, referenceNumber, status, aadhaarLinked);
+    public boolean isAcceptableTraceId(String traceId) {
+        if (traceId == null || traceId.isEmpty() || traceId.length() > MAX_TRACE_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < traceId.length(); i++) {
+            char c = traceId.charAt(i);
+            boolean allowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_' || c == '.' || c == ':';
+            if (!allowed) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
-     * Log error with PII masking
+     * The trace id of a W3C traceparent header (version-traceid-parentid-flags), or null
      */
-    public void logError(String traceId, String referenceNumber, String errorCode, String errorMessage) {
-        logger.error("PAN Verification Error - TraceId: {}, ReferenceNumber: {}, ErrorCode: {}, ErrorMessage: {}",
-                    traceId, referenceNumber, errorCode, errorMessage);
+    public String fromTraceparent(String traceparent) {
+        if (traceparent == null || traceparent.length() < 55 || traceparent.charAt(2) != '-'
+                || traceparent.charAt(35) != '-') {
+            return null;
+        }
+        String traceId = traceparent.substring(3, 35);
+        for (int i = 0; i < traceId.length(); i++) {
+            if (Character.digit(traceId.charAt(i), 16) < 0) {
+                return null;
+            }
+        }
+        // All zeros is the invalid trace id
+        return traceId.chars().allMatch(c -> c == '0') ? null : traceId;
     }
 
     /**
-     * Mask PAN for secure logging
+     * Audit a verification being accepted
      */
-    private String maskPAN(String pan) {
-        if (pan == null || pan.length() != 10) return "INVALID_PAN";
-        return "XXXX" + pan.substring(4, 8) + pan.substring(9);
+    public void logVerificationRequest(PANVerificationRecord record) {
+        long panKey = panKey(record);
+        auditJournal.append(AuditEntryType.REQUEST, System.currentTimeMillis(), record.getTraceId(),
+            record.getReferenceNumber(), panKey, null, null, null, null, -1, null);
+        if (logger.isDebugEnabled()) {
+            logger.debug("PAN Verification Request - TraceId: {}, ReferenceNumber: {}, PAN: {}",
+                        record.getTraceId(), record.getReferenceNumber(), PanCodec.mask(panKey));
+        }
     }
 
     /**
-     * Mask name for secure logging
+     * Audit a verification completing with a status
      */
-    private String maskName(String name) {
-        if (name == null || name.length() <= 2) return "****";
-        return name.substring(0, 2) + "****";
+    public void logVerificationResponse(PANVerificationRecord record) {
+        append(AuditEntryType.RESPONSE, record);
+        logger.debug("PAN Verification Response - TraceId: {}, ReferenceNumber: {}, Status: {}, AadhaarLinked: {}",
+                    record.getTraceId(), record.getReferenceNumber(), record.getStatus(), record.getAadhaarLinked());
+    }
+
+    /**
+     * Audit a verification completing with an error
+     */
+    public void logError(PANVerificationRecord record) {
+        append(AuditEntryType.ERROR, record);
+        logger.debug("PAN Verification Error - TraceId: {}, ReferenceNumber: {}, ErrorCode: {}, ErrorMessage: {}",
+                    record.getTraceId(), record.getReferenceNumber(), record.getErrorCode(), record.getErrorMessage());
+    }
+
+    private void append(AuditEntryType type, PANVerificationRecord record) {
+        long durationMicros = record.getRequestTimestamp() != null && record.getResponseTimestamp() != null
+            ? ChronoUnit.MICROS.between(record.getRequestTimestamp(), record.getResponseTimestamp())
+            : -1;
+        // An error record's status is only the pending placeholder
+        boolean completed = type == AuditEntryType.RESPONSE;
+        auditJournal.append(type, System.currentTimeMillis(), record.getTraceId(), record.getReferenceNumber(),
+            panKey(record), completed ? record.getStatus() : null, completed ? record.getAadhaarLinked() : null,
+            record.getRetryCount(), record.getServedFromCache(), durationMicros, record.getErrorCode());
+    }
+
+    private static long panKey(PANVerificationRecord record) {
+        return record.getPanKey() != null ? record.getPanKey() : PanCodec.INVALID;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,104 @@
+package com.chumani.production.panverification.service;
+
+import com.chumani.production.panverification.dto.PANVerificationResponse;
+import com.chumani.production.panverification.util.Deadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Upstream Call Coalescer
+ * Single-flight for Protean calls: concurrent verifications of the same PAN share the
+ * first caller's upstream call instead of each running their own retry loop.
+ * Callers still write their own audit records; only the upstream result is shared.
+ *
+ * Joining callers wait no longer than their own deadline. If the shared call ran out of the
+ * first caller's (shorter) deadline, a joiner with time left makes its own call.
+ */
+@Component
+public class UpstreamCallCoalescer {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private VerificationResultCache resultCache;
+
+    @Autowired
+    private VerificationMetrics metrics;
+
+    private final ConcurrentMap<String, CompletableFuture<PANVerificationResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private Counter upstreamCalls;
+    private Counter coalescedCalls;
+
+    @PostConstruct
+    void registerMetrics() {
+        upstreamCalls = Counter.builder("pan.upstream.coalescer.calls")
+            .description("Upstream verifications actually started by a coalescing leader")
+            .register(meterRegistry);
+        coalescedCalls = Counter.builder("pan.upstream.coalescer.saved")
+            .description("Upstream verifications saved by sharing an in-flight call's result for the same PAN")
+            .register(meterRegistry);
+        meterRegistry.gauge("pan.upstream.coalescer.in.flight", inFlight, ConcurrentMap::size);
+    }
+
+    /**
+     * Run the upstream call, or wait for the one already in flight for this PAN
+     */
+    public PANVerificationResponse execute(String pan, String name, Deadline deadline,
+                                           Supplier<PANVerificationResponse> upstreamCall) {
+        String key = resultCache.keyFor(pan, name);
+        CompletableFuture<PANVerificationResponse> call = new CompletableFuture<>();
+        CompletableFuture<PANVerificationResponse> existing;
+
+        while ((existing = inFlight.putIfAbsent(key, call)) != null) {
+            PANVerificationResponse shared = await(existing, deadline);
+            if (!ProteanAPIService.DEADLINE_EXCEEDED.equals(shared.getErrorCode())) {
+                coalescedCalls.increment();
+                return shared;
+            }
+            // Out of time either way: saved nothing, and no time left to try again
+            if (deadline.isExpired()) {
+                return shared;
+            }
+            inFlight.remove(key, existing);
+        }
+
+        upstreamCalls.increment();
+        try {
+            PANVerificationResponse response = upstreamCall.get();
+            call.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private PANVerificationResponse await(CompletableFuture<PANVerificationResponse> call, Deadline deadline) {
+        try {
+            return call.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            metrics.recordDeadlineExceeded(VerificationMetrics.DeadlinePhase.IN_FLIGHT);
+            return ProteanAPIService.deadlineExceededResponse(0);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+}
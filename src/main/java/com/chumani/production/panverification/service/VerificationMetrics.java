@@ -0,0 +1,177 @@
+package com.chumani.production.panverification.service;
+
+import com.chumani.production.panverification.enums.PANStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verification Metrics
+ * Latency histograms for the stages of a verification and for each upstream attempt, tagged by
+ * outcome and PAN status, plus counts of errors by code, Idempotency-Key outcomes and deadline
+ * shedding. Each tag combination's timer is registered on first use and cached in an array
+ * indexed by ordinal, so after warm-up recording a sample is a nanoTime difference and an array
+ * lookup: no tag or meter objects are built per request.
+ *
+ * Histograms are published as buckets (Prometheus histogram_quantile over any window and across
+ * instances) between histogram min and max; management.metrics.distribution.* overrides apply.
+ */
+@Component
+public class VerificationMetrics {
+
+    /**
+     * Phases of a verification: the async pending insert, the cached or upstream lookup
+     * (all attempts and retry backoff), handing the record to persistence, and the whole request
+     */
+    public enum Stage { PENDING, UPSTREAM, PERSIST, TOTAL }
+
+    /**
+     * How a stage ended: with a fresh upstream answer, a cached one, or an error
+     */
+    public enum Outcome { SUCCESS, CACHED, ERROR }
+
+    /**
+     * How one upstream attempt ended: answered, failed, or rejected before calling Protean
+     */
+    public enum AttemptOutcome { SUCCESS, FAILURE, REJECTED }
+
+    /**
+     * How a request with an Idempotency-Key was handled: ran under a fresh claim, answered with the
+     * stored response, turned away while the first request was still running, or refused because
+     * the key came with a different request
+     */
+    public enum IdempotencyOutcome { CLAIMED, REPLAYED, IN_PROGRESS, MISMATCH }
+
+    /**
+     * Where a request ran out of deadline: shed before the upstream call, an attempt or retry
+     * skipped for lack of time, or upstream work abandoned while in flight
+     */
+    public enum DeadlinePhase { ADMISSION, ATTEMPT, BACKOFF, IN_FLIGHT }
+
+    private static final PANStatus[] STATUSES = PANStatus.values();
+    private static final String NO_STATUS = "none";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${pan.verification.metrics.histogram.min-ms:1}")
+    private long histogramMinMs;
+
+    @Value("${pan.verification.metrics.histogram.max-ms:30000}")
+    private long histogramMaxMs;
+
+    // Filled on first use: [stage][outcome][status ordinal, or STATUSES.length for none]
+    private Timer[][][] stageTimers;
+    // [outcome][status ordinal, or STATUSES.length for none]
+    private Timer[][] attemptTimers;
+    private Timer retryBackoff;
+    private Counter[] idempotencyCounters;
+    private Counter[] deadlineCounters;
+    private final Map<String, Counter> errorCounters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        stageTimers = new Timer[Stage.values().length][Outcome.values().length][STATUSES.length + 1];
+        attemptTimers = new Timer[AttemptOutcome.values().length][STATUSES.length + 1];
+        retryBackoff = histogram("pan.upstream.retry.backoff", "Time between a failed attempt and its retry starting")
+            .register(meterRegistry);
+        idempotencyCounters = new Counter[IdempotencyOutcome.values().length];
+        for (IdempotencyOutcome outcome : IdempotencyOutcome.values()) {
+            idempotencyCounters[outcome.ordinal()] = Counter.builder("pan.idempotency.requests")
+                .description("Verify requests carrying an Idempotency-Key, by how they were handled")
+                .tag("outcome", tagValue(outcome))
+                .register(meterRegistry);
+        }
+        deadlineCounters = new Counter[DeadlinePhase.values().length];
+        for (DeadlinePhase phase : DeadlinePhase.values()) {
+            deadlineCounters[phase.ordinal()] = Counter.builder("pan.verification.deadline.exceeded")
+                .description("Verification work skipped or abandoned because the request deadline ran out")
+                .tag("phase", tagValue(phase))
+                .register(meterRegistry);
+        }
+    }
+
+    public void recordStage(Stage stage, Outcome outcome, PANStatus status, long elapsedNanos) {
+        int statusIndex = statusIndex(status);
+        Timer timer = stageTimers[stage.ordinal()][outcome.ordinal()][statusIndex];
+        if (timer == null) {
+            // Racing threads get the same meter back from the registry
+            timer = histogram("pan.verification.stage", "Time spent in each stage of a PAN verification")
+                .tag("stage", tagValue(stage))
+                .tag("outcome", tagValue(outcome))
+                .tag("status", statusTag(statusIndex))
+                .register(meterRegistry);
+            stageTimers[stage.ordinal()][outcome.ordinal()][statusIndex] = timer;
+        }
+        timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordAttempt(AttemptOutcome outcome, PANStatus status, long elapsedNanos) {
+        int statusIndex = statusIndex(status);
+        Timer timer = attemptTimers[outcome.ordinal()][statusIndex];
+        if (timer == null) {
+            timer = histogram("pan.upstream.attempt",
+                    "Time from starting an upstream attempt (including limiter wait and hedges) to its outcome")
+                .tag("outcome", tagValue(outcome))
+                .tag("status", statusTag(statusIndex))
+                .register(meterRegistry);
+            attemptTimers[outcome.ordinal()][statusIndex] = timer;
+        }
+        timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRetryBackoff(long elapsedNanos) {
+        retryBackoff.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Count a verification that completed with an error code
+     */
+    public void recordError(String errorCode) {
+        Counter counter = errorCounters.get(errorCode);
+        if (counter == null) {
+            counter = errorCounters.computeIfAbsent(errorCode, code -> Counter.builder("pan.verification.errors")
+                .description("Verifications completed with an error, by error code")
+                .tag("code", code)
+                .register(meterRegistry));
+        }
+        counter.increment();
+    }
+
+    public void recordIdempotency(IdempotencyOutcome outcome) {
+        idempotencyCounters[outcome.ordinal()].increment();
+    }
+
+    public void recordDeadlineExceeded(DeadlinePhase phase) {
+        deadlineCounters[phase.ordinal()].increment();
+    }
+
+    private Timer.Builder histogram(String name, String description) {
+        return Timer.builder(name)
+            .description(description)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(histogramMinMs))
+            .maximumExpectedValue(Duration.ofMillis(histogramMaxMs));
+    }
+
+    private static int statusIndex(PANStatus status) {
+        return status != null ? status.ordinal() : STATUSES.length;
+    }
+
+    private static String statusTag(int statusIndex) {
+        return statusIndex < STATUSES.length ? tagValue(STATUSES[statusIndex]) : NO_STATUS;
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
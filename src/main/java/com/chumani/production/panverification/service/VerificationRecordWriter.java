@@ -0,0 +1,241 @@
+package com.chumani.production.panverification.service;
+
+import com.chumani.production.panverification.entity.PANVerificationRecord;
+import com.chumani.production.panverification.repository.PANVerificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verification Record Writer
+ * Write-behind persistence for verification audit records. Records are queued in memory and
+ * a single writer thread saves them in batches (one transaction, JDBC-batched inserts and
+ * updates) once batch-size records are waiting or flush-interval has passed.
+ *
+ * When the queue stays full past offer-timeout, the caller saves the record itself, which
+ * slows producers down to database speed. The queue is drained on shutdown; records still
+ * queued when the process dies are lost, so anything a client was promised to find later
+ * (async pending records) must be saved synchronously instead.
+ */
+@Component
+public class VerificationRecordWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerificationRecordWriter.class);
+
+    @Autowired
+    private PANVerificationRepository repository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${pan.verification.persistence.write-behind.enabled:true}")
+    private boolean writeBehindEnabled;
+
+    @Value("${pan.verification.persistence.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${pan.verification.persistence.write-behind.batch-size:50}")
+    private int batchSize;
+
+    @Value("${pan.verification.persistence.write-behind.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    @Value("${pan.verification.persistence.write-behind.offer-timeout-ms:100}")
+    private long offerTimeoutMs;
+
+    @Value("${pan.verification.persistence.write-behind.shutdown-timeout:PT10S}")
+    private Duration shutdownTimeout;
+
+    private BlockingQueue<PANVerificationRecord> queue;
+
+    // Queued or being flushed, by reference number, so status lookups see them before they land
+    private final Map<String, PANVerificationRecord> unflushed = new ConcurrentHashMap<>();
+
+    private Thread writerThread;
+    private volatile boolean running;
+    private Counter flushedRecords;
+    private Counter syncFallbacks;
+    private Counter failedRecords;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        flushedRecords = Counter.builder("pan.persistence.write.behind.flushed")
+            .description("Verification records saved by the write-behind writer")
+            .register(meterRegistry);
+        syncFallbacks = Counter.builder("pan.persistence.write.behind.sync.fallbacks")
+            .description("Verification records saved on the caller thread because the write-behind queue was full")
+            .register(meterRegistry);
+        failedRecords = Counter.builder("pan.persistence.write.behind.failed")
+            .description("Verification records the write-behind writer could not save")
+            .register(meterRegistry);
+        meterRegistry.gauge("pan.persistence.write.behind.queue.depth", this, VerificationRecordWriter::getQueueDepth);
+
+        if (!writeBehindEnabled) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::runWriter, "pan-record-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        // New writes from here on are saved synchronously; the writer drains what is queued.
+        // Not interrupted: that could abort a flush halfway through its transaction.
+        running = false;
+        writerThread.join(shutdownTimeout.toMillis());
+        if (writerThread.isAlive()) {
+            logger.error("Record writer did not finish within {}, {} records not saved",
+                        shutdownTimeout, queue.size());
+            return;
+        }
+        // Writes that raced with shutdown
+        List<PANVerificationRecord> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+    }
+
+    /**
+     * Save a record, normally via the write-behind queue
+     */
+    public void write(PANVerificationRecord record) {
+        if (!running) {
+            repository.save(record);
+            return;
+        }
+
+        unflushed.put(record.getReferenceNumber(), record);
+        boolean queued;
+        try {
+            queued = queue.offer(record, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            syncFallbacks.increment();
+            try {
+                repository.save(record);
+            } finally {
+                unflushed.remove(record.getReferenceNumber(), record);
+            }
+        }
+    }
+
+    /**
+     * A record written but not yet saved to the database
+     */
+    public Optional<PANVerificationRecord> findUnflushed(String referenceNumber) {
+        return Optional.ofNullable(unflushed.get(referenceNumber));
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void runWriter() {
+        List<PANVerificationRecord> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.error("Record writer interrupted, {} records not saved", queue.size() + batch.size());
+                return;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+        logger.info("Record writer stopped");
+    }
+
+    // Wait for the first record, then up to flush-interval for the batch to fill
+    private void collectBatch(List<PANVerificationRecord> batch) throws InterruptedException {
+        // Bounded wait so the loop notices shutdown
+        PANVerificationRecord first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            PANVerificationRecord next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PANVerificationRecord> batch) {
+        List<PANVerificationRecord> inserts = batch.stream()
+            .filter(record -> record.getId() == null)
+            .toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> saveBatch(batch));
+            flushedRecords.increment(batch.size());
+        } catch (Exception e) {
+            // The rolled-back persist already assigned ids; make those records new again
+            inserts.forEach(record -> record.setId(null));
+            logger.warn("Batched save of {} verification records failed, saving individually: {}",
+                       batch.size(), e.getMessage());
+            for (PANVerificationRecord record : batch) {
+                try {
+                    repository.save(record);
+                    flushedRecords.increment();
+                } catch (Exception recordFailure) {
+                    failedRecords.increment();
+                    logger.error("Could not save verification record - ReferenceNumber: {}, Error: {}",
+                                record.getReferenceNumber(), recordFailure.getMessage());
+                }
+            }
+        } finally {
+            batch.forEach(record -> unflushed.remove(record.getReferenceNumber(), record));
+        }
+    }
+
+    private void saveBatch(List<PANVerificationRecord> batch) {
+        // Load existing rows in one query so merging the updates needs no per-record select
+        List<Long> existingIds = batch.stream()
+            .map(PANVerificationRecord::getId)
+            .filter(id -> id != null)
+            .toList();
+        if (!existingIds.isEmpty()) {
+            repository.findAllById(existingIds);
+        }
+        repository.saveAll(batch);
+    }
+}
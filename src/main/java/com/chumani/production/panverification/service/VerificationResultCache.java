@@ -0,0 +1,128 @@
+package com.chumani.production.panverification.service;
+
+import com.chumani.production.panverification.dto.PANVerificationResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Verification Result Cache
+ * Bounded in-memory cache of Protean results keyed by PAN (and optionally name).
+ * Entries expire per PANStatus, with a separate short TTL for error results. Errors generated
+ * locally (a caller's deadline, the concurrency limiter or bulkhead shedding load) are never cached.
+ * Hit/miss/eviction counters are published as cache.* meters under the name "pan.verification.results".
+ */
+@Component
+public class VerificationResultCache {
+
+    // Produced without asking Protean, so they say nothing about the PAN
+    private static final Set<String> UNCACHED_ERRORS = Set.of(
+        ProteanAPIService.DEADLINE_EXCEEDED,
+        ProteanAPIService.CONCURRENCY_LIMITED,
+        ProteanAPIService.BULKHEAD_FULL);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${pan.verification.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${pan.verification.cache.maximum-size:100000}")
+    private long maximumSize;
+
+    @Value("${pan.verification.cache.key-includes-name:false}")
+    private boolean keyIncludesName;
+
+    @Value("${pan.verification.cache.ttl.active:PT6H}")
+    private Duration activeTtl;
+
+    @Value("${pan.verification.cache.ttl.inactive:PT6H}")
+    private Duration inactiveTtl;
+
+    @Value("${pan.verification.cache.ttl.deactivated:PT24H}")
+    private Duration deactivatedTtl;
+
+    @Value("${pan.verification.cache.ttl.cancelled:PT24H}")
+    private Duration cancelledTtl;
+
+    @Value("${pan.verification.cache.ttl.error:PT30S}")
+    private Duration errorTtl;
+
+    private Cache<String, PANVerificationResponse> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new Expiry<String, PANVerificationResponse>() {
+                @Override
+                public long expireAfterCreate(String key, PANVerificationResponse value, long currentTime) {
+                    return ttlFor(value).toNanos();
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, PANVerificationResponse value, long currentTime,
+                                              long currentDuration) {
+                    return ttlFor(value).toNanos();
+                }
+
+                @Override
+                public long expireAfterRead(String key, PANVerificationResponse value, long currentTime,
+                                            long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "pan.verification.results");
+    }
+
+    public Optional<PANVerificationResponse> get(String pan, String name) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.getIfPresent(keyFor(pan, name)));
+    }
+
+    public void put(String pan, String name, PANVerificationResponse response) {
+        if (enabled && !ttlFor(response).isZero()) {
+            cache.put(keyFor(pan, name), response);
+        }
+    }
+
+    /**
+     * Identity of a verification for caching and coalescing purposes
+     */
+    public String keyFor(String pan, String name) {
+        if (!keyIncludesName || name == null) {
+            return pan;
+        }
+        return pan + '|' + name.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private Duration ttlFor(PANVerificationResponse response) {
+        if (response.getErrorCode() != null && UNCACHED_ERRORS.contains(response.getErrorCode())) {
+            return Duration.ZERO;
+        }
+        if (response.getErrorCode() != null || response.getStatus() == null) {
+            return errorTtl;
+        }
+        switch (response.getStatus()) {
+            case ACTIVE: return activeTtl;
+            case INACTIVE: return inactiveTtl;
+            case DEACTIVATED: return deactivatedTtl;
+            case CANCELLED: return cancelledTtl;
+            default: return Duration.ZERO;
+        }
+    }
+}
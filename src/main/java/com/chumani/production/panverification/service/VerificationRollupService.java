@@ -0,0 +1,220 @@
+package com.chumani.production.panverification.service;
+
+import com.chumani.production.panverification.dto.RollupReportRow;
+import com.chumani.production.panverification.dto.RollupSummary;
+import com.chumani.production.panverification.entity.DailyVerificationRollup;
+import com.chumani.production.panverification.entity.HourlyVerificationRollup;
+import com.chumani.production.panverification.entity.RollupWatermark;
+import com.chumani.production.panverification.entity.VerificationRollup;
+import com.chumani.production.panverification.enums.PANStatus;
+import com.chumani.production.panverification.repository.DailyVerificationRollupRepository;
+import com.chumani.production.panverification.repository.HourlyVerificationRollupRepository;
+import com.chumani.production.panverification.repository.PANVerificationRepository;
+import com.chumani.production.panverification.repository.RollupWatermarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Verification Rollup Service
+ * Incrementally folds completed verifications into hourly and daily rollup tables, and
+ * serves reporting queries from them instead of scanning pan_verification_records.
+ *
+ * Each run aggregates records completed in (watermark, now - settle lag] with one grouped
+ * query, adds the groups to the existing rollup rows and advances the watermark, all in one
+ * transaction. The settle lag leaves time for write-behind flushes to land: a record committed
+ * more than settle-lag after it completed is not counted. Runs lock the watermark row, so
+ * concurrent instances never fold the same range twice.
+ */
+@Service
+public class VerificationRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerificationRollupService.class);
+
+    static final String WATERMARK_NAME = "verification-rollups";
+
+    @Autowired
+    private PANVerificationRepository recordRepository;
+
+    @Autowired
+    private HourlyVerificationRollupRepository hourlyRepository;
+
+    @Autowired
+    private DailyVerificationRollupRepository dailyRepository;
+
+    @Autowired
+    private RollupWatermarkRepository watermarkRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${pan.verification.rollup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${pan.verification.rollup.settle-lag:PT2M}")
+    private Duration settleLag;
+
+    // Largest range folded per transaction while catching up
+    @Value("${pan.verification.rollup.max-span:PT6H}")
+    private Duration maxSpan;
+
+    /**
+     * Fold newly completed verifications into the rollups, catching up span by span
+     */
+    @Scheduled(fixedDelayString = "${pan.verification.rollup.interval-ms:60000}",
+               initialDelayString = "${pan.verification.rollup.initial-delay-ms:60000}")
+    public void rollUp() {
+        if (!enabled) {
+            return;
+        }
+        long folded = 0;
+        SpanResult span;
+        do {
+            span = transactionTemplate.execute(status -> rollUpNextSpan());
+            folded += span.folded();
+        } while (!span.caughtUp());
+        if (folded > 0) {
+            logger.info("Rolled up {} completed verifications", folded);
+        }
+    }
+
+    /**
+     * Hourly rollup rows with buckets starting in [from, to)
+     */
+    @Transactional(readOnly = true)
+    public List<RollupReportRow> getHourlyReport(LocalDateTime from, LocalDateTime to) {
+        return hourlyRepository.findByBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(from, to)
+            .stream().map(RollupReportRow::of).toList();
+    }
+
+    /**
+     * Daily rollup rows with buckets starting in [from, to)
+     */
+    @Transactional(readOnly = true)
+    public List<RollupReportRow> getDailyReport(LocalDateTime from, LocalDateTime to) {
+        return dailyRepository.findByBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(from, to)
+            .stream().map(RollupReportRow::of).toList();
+    }
+
+    /**
+     * Totals over [from, to) truncated to whole hours: daily rows for the whole days
+     * in the range, hourly rows for the partial days at either end
+     */
+    @Transactional(readOnly = true)
+    public RollupSummary getSummary(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = from.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime end = to.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime firstFullDay = start.truncatedTo(ChronoUnit.DAYS).equals(start)
+            ? start : start.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+        LocalDateTime lastFullDay = end.truncatedTo(ChronoUnit.DAYS);
+
+        RollupSummary summary = new RollupSummary(start, end);
+        if (firstFullDay.isBefore(lastFullDay)) {
+            hourlyRepository.findByBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(start, firstFullDay)
+                .forEach(summary::add);
+            dailyRepository.findByBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(firstFullDay, lastFullDay)
+                .forEach(summary::add);
+            hourlyRepository.findByBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(lastFullDay, end)
+                .forEach(summary::add);
+        } else {
+            hourlyRepository.findByBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(start, end)
+                .forEach(summary::add);
+        }
+        return summary;
+    }
+
+    private SpanResult rollUpNextSpan() {
+        LocalDateTime settled = LocalDateTime.now().minus(settleLag);
+        RollupWatermark watermark = watermarkRepository.findForUpdate(WATERMARK_NAME)
+            .orElseGet(() -> new RollupWatermark(WATERMARK_NAME, initialWatermark(settled)));
+
+        LocalDateTime from = watermark.getWatermark();
+        boolean caughtUp = !from.plus(maxSpan).isBefore(settled);
+        LocalDateTime to = caughtUp ? settled : from.plus(maxSpan);
+        if (!to.isAfter(from)) {
+            return new SpanResult(0, true);
+        }
+
+        List<Object[]> groups = recordRepository.aggregateCompletedPerHour(from, to);
+        long folded = 0;
+        if (!groups.isEmpty()) {
+            folded = fold(groups, from, to);
+        }
+
+        watermark.setWatermark(to);
+        watermarkRepository.save(watermark);
+        return new SpanResult(folded, caughtUp);
+    }
+
+    // First run: start just before the oldest completed record
+    private LocalDateTime initialWatermark(LocalDateTime settled) {
+        return recordRepository.findEarliestResponseTimestamp()
+            .map(earliest -> earliest.minusNanos(1))
+            .orElse(settled);
+    }
+
+    private long fold(List<Object[]> groups, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime firstHour = from.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime firstDay = from.truncatedTo(ChronoUnit.DAYS);
+        Map<String, HourlyVerificationRollup> hourly = byKey(hourlyRepository
+            .findByBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(firstHour, to.plusHours(1)));
+        Map<String, DailyVerificationRollup> daily = byKey(dailyRepository
+            .findByBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(firstDay, to.plusDays(1)));
+
+        long folded = 0;
+        for (Object[] group : groups) {
+            LocalDateTime hour = LocalDateTime.of(((Number) group[0]).intValue(), ((Number) group[1]).intValue(),
+                ((Number) group[2]).intValue(), ((Number) group[3]).intValue(), 0);
+            String errorCode = (String) group[5];
+            // Failed verifications only carry a placeholder status
+            PANStatus status = errorCode == null ? (PANStatus) group[4] : null;
+            long count = ((Number) group[6]).longValue();
+            long aadhaarLinked = ((Number) group[7]).longValue();
+            long latencySumMs = toMillis(group[8]);
+            long latencyMaxMs = toMillis(group[9]);
+
+            hourly.computeIfAbsent(key(hour, status, errorCode),
+                    k -> new HourlyVerificationRollup(hour, status, errorCode))
+                .add(count, aadhaarLinked, latencySumMs, latencyMaxMs);
+            LocalDateTime day = hour.truncatedTo(ChronoUnit.DAYS);
+            daily.computeIfAbsent(key(day, status, errorCode),
+                    k -> new DailyVerificationRollup(day, status, errorCode))
+                .add(count, aadhaarLinked, latencySumMs, latencyMaxMs);
+            folded += count;
+        }
+
+        hourlyRepository.saveAll(hourly.values());
+        dailyRepository.saveAll(daily.values());
+        return folded;
+    }
+
+    private static <T extends VerificationRollup> Map<String, T> byKey(List<T> rollups) {
+        Map<String, T> byKey = new HashMap<>(rollups.size() * 2);
+        for (T rollup : rollups) {
+            byKey.put(key(rollup.getBucketStart(), rollup.getStatus(), rollup.getErrorCode()), rollup);
+        }
+        return byKey;
+    }
+
+    private static String key(LocalDateTime bucketStart, PANStatus status, String errorCode) {
+        return bucketStart + "|" + Objects.toString(status, "") + "|" + Objects.toString(errorCode, "");
+    }
+
+    private static long toMillis(Object nanos) {
+        return nanos == null ? 0 : Math.round(((Number) nanos).doubleValue() / 1_000_000);
+    }
+
+    private record SpanResult(long folded, boolean caughtUp) {}
+}
@@ -0,0 +1,167 @@
+package com.chumani.production.panverification.service;
+
+import com.chumani.production.panverification.dto.VerificationStats;
+import com.chumani.production.panverification.entity.PANVerificationRecord;
+import com.chumani.production.panverification.enums.PANStatus;
+import com.chumani.production.panverification.repository.PANVerificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Verification Stats Collector
+ * Live verification counts over the last 24 hours, kept in a ring of one-minute buckets of
+ * striped counters (LongAdder): outcomes per status, failures per error code, upstream attempts
+ * and cache hits. Recording is lock-free; a stale bucket is swapped for a fresh one by CAS.
+ *
+ * Seeded at startup from one aggregate query over the stored records, so restarts keep the window.
+ */
+@Component
+public class VerificationStatsCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerificationStatsCollector.class);
+
+    private static final int BUCKETS = (int) TimeUnit.DAYS.toMinutes(1);
+    private static final PANStatus[] STATUSES = PANStatus.values();
+
+    @Autowired
+    private PANVerificationRepository repository;
+
+    private final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray<>(BUCKETS);
+
+    /**
+     * Count a completed verification
+     */
+    public void record(PANVerificationRecord record) {
+        long attempts = record.getServedFromCache() ? 0 : record.getRetryCount() + 1L;
+        add(currentMinute(), record.getErrorCode(), record.getStatus(), 1, attempts,
+            record.getServedFromCache() ? 1 : 0);
+    }
+
+    /**
+     * Totals over the most recent window (whole minutes, including the current one)
+     */
+    public VerificationStats getStats(Duration window) {
+        long windowMinutes = Math.max(1, Math.min(BUCKETS, window.toMinutes()));
+        long now = currentMinute();
+
+        long[] statusCounts = new long[STATUSES.length];
+        Map<String, Long> errorCounts = new TreeMap<>();
+        long upstreamAttempts = 0;
+        long servedFromCache = 0;
+        for (long minute = now - windowMinutes + 1; minute <= now; minute++) {
+            Bucket bucket = buckets.get(index(minute));
+            if (bucket == null || bucket.minute != minute) {
+                continue;
+            }
+            for (int i = 0; i < statusCounts.length; i++) {
+                statusCounts[i] += bucket.statusCounts[i].sum();
+            }
+            bucket.errorCounts.forEach((errorCode, count) -> errorCounts.merge(errorCode, count.sum(), Long::sum));
+            upstreamAttempts += bucket.upstreamAttempts.sum();
+            servedFromCache += bucket.servedFromCache.sum();
+        }
+
+        Map<PANStatus, Long> byStatus = new EnumMap<>(PANStatus.class);
+        for (int i = 0; i < statusCounts.length; i++) {
+            if (statusCounts[i] > 0) {
+                byStatus.put(STATUSES[i], statusCounts[i]);
+            }
+        }
+        return new VerificationStats(window, byStatus, errorCounts, upstreamAttempts, servedFromCache);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void seedFromDatabase() {
+        LocalDateTime since = LocalDateTime.now().minusMinutes(BUCKETS - 1).withSecond(0).withNano(0);
+        long seeded = 0;
+        try {
+            for (Object[] row : repository.countCompletedPerMinuteSince(since)) {
+                long minute = toEpochMinute(LocalDateTime.of(
+                    ((Number) row[0]).intValue(), ((Number) row[1]).intValue(), ((Number) row[2]).intValue(),
+                    ((Number) row[3]).intValue(), ((Number) row[4]).intValue()));
+                long count = ((Number) row[7]).longValue();
+                add(minute, (String) row[6], (PANStatus) row[5], count,
+                    ((Number) row[8]).longValue(), ((Number) row[9]).longValue());
+                seeded += count;
+            }
+            logger.info("Seeded verification stats with {} verifications since {}", seeded, since);
+        } catch (Exception e) {
+            logger.warn("Could not seed verification stats, starting from zero: {}", e.getMessage());
+        }
+    }
+
+    // Failures are counted by error code only: their status is just the pending placeholder
+    private void add(long minute, String errorCode, PANStatus status, long count, long attempts, long cacheHits) {
+        if (minute <= currentMinute() - BUCKETS) {
+            return;
+        }
+        Bucket bucket = bucketFor(minute);
+        if (errorCode != null) {
+            bucket.errorCounts.computeIfAbsent(errorCode, code -> new LongAdder()).add(count);
+        } else if (status != null) {
+            bucket.statusCounts[status.ordinal()].add(count);
+        }
+        bucket.upstreamAttempts.add(attempts);
+        bucket.servedFromCache.add(cacheHits);
+    }
+
+    private Bucket bucketFor(long minute) {
+        int index = index(minute);
+        while (true) {
+            Bucket bucket = buckets.get(index);
+            if (bucket != null && bucket.minute == minute) {
+                return bucket;
+            }
+            // Never replace a newer bucket with an older one
+            if (bucket != null && bucket.minute > minute) {
+                return new Bucket(minute);
+            }
+            Bucket fresh = new Bucket(minute);
+            if (buckets.compareAndSet(index, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private static int index(long minute) {
+        return (int) Math.floorMod(minute, (long) BUCKETS);
+    }
+
+    private static long currentMinute() {
+        return TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis());
+    }
+
+    private static long toEpochMinute(LocalDateTime time) {
+        return TimeUnit.SECONDS.toMinutes(time.atZone(ZoneId.systemDefault()).toEpochSecond());
+    }
+
+    private static final class Bucket {
+
+        private final long minute;
+        private final LongAdder[] statusCounts = new LongAdder[STATUSES.length];
+        private final Map<String, LongAdder> errorCounts = new ConcurrentHashMap<>();
+        private final LongAdder upstreamAttempts = new LongAdder();
+        private final LongAdder servedFromCache = new LongAdder();
+
+        private Bucket(long minute) {
+            this.minute = minute;
+            for (int i = 0; i < statusCounts.length; i++) {
+                statusCounts[i] = new LongAdder();
+            }
+        }
+    }
+}
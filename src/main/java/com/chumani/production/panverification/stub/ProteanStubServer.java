@@ -0,0 +1,149 @@
+package com.chumani.production.panverification.stub;
+
+import com.chumani.production.panverification.dto.ProteanVerificationRequest;
+import com.chumani.production.panverification.dto.ProteanVerificationResponse;
+import com.chumani.production.panverification.enums.PANStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Protean Stub Server
+ * Embeddable stand-in for the Protean verification API, for local runs, load tests and tests.
+ * Implements business scenarios from prompts:
+ * - Even digit ending = Active
+ * - Odd digit ending = Inactive
+ * - ZZZ prefix = Error simulation (HTTP 500)
+ * - Ending with 9 = Delay simulation
+ * - Optionally, a random slowRatio of all other requests is delayed too (tail latency)
+ *
+ * Run standalone with: java -cp ... com.chumani.production.panverification.stub.ProteanStubServer
+ * [port] [delayMs] [slowRatio]. Each request runs on its own virtual thread, so thousands of
+ * concurrent delayed responses cost no platform threads.
+ */
+public class ProteanStubServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProteanStubServer.class);
+
+    public static final String VERIFY_PATH = "/api/pan/internal/v1/verify";
+
+    private final int port;
+    private final long delayMs;
+    private final double slowRatio;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong transactionSequence = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public ProteanStubServer(int port, long delayMs) {
+        this(port, delayMs, 0);
+    }
+
+    public ProteanStubServer(int port, long delayMs, double slowRatio) {
+        this.port = port;
+        this.delayMs = delayMs;
+        this.slowRatio = slowRatio;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8082;
+        long delayMs = args.length > 1 ? Long.parseLong(args[1]) : 5000;
+        double slowRatio = args.length > 2 ? Double.parseDouble(args[2]) : 0;
+        new ProteanStubServer(port, delayMs, slowRatio).start();
+    }
+
+    public void start() throws IOException {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.createContext(VERIFY_PATH, this::handleVerify);
+        server.setExecutor(executor);
+        server.start();
+        logger.info("Protean stub server listening on port {}", getPort());
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public int getPort() {
+        return server != null ? server.getAddress().getPort() : port;
+    }
+
+    private void handleVerify(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            ProteanVerificationRequest request;
+            try (InputStream body = exchange.getRequestBody()) {
+                request = objectMapper.readValue(body, ProteanVerificationRequest.class);
+            }
+            String pan = request.getPan();
+            if (pan == null || pan.isEmpty()) {
+                sendJson(exchange, 400, "{\"error\":\"pan is required\"}".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            // Business scenario: ZZZ prefix causes error (from mock.txt)
+            if (pan.startsWith("ZZZ")) {
+                logger.debug("Simulating error for PAN starting with ZZZ - TraceId: {}", request.getTraceId());
+                sendJson(exchange, 500,
+                    "{\"error\":\"Simulated system error for PAN starting with ZZZ\"}".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            // Business scenario: Ending with 9 causes delay (from mock.txt)
+            if (pan.endsWith("9") || ThreadLocalRandom.current().nextDouble() < slowRatio) {
+                logger.debug("Simulating slow response - TraceId: {}", request.getTraceId());
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+
+            sendJson(exchange, 200, objectMapper.writeValueAsBytes(verify(pan)));
+        }
+    }
+
+    private ProteanVerificationResponse verify(String pan) {
+        // Extract last digit for business logic
+        char lastDigit = pan.charAt(pan.length() - 1);
+        String transactionId = "PTN" + transactionSequence.incrementAndGet();
+
+        // Business logic from prompts: Even digit = Active, Odd digit = Inactive
+        if (Character.isDigit(lastDigit) && Character.getNumericValue(lastDigit) % 2 == 0) {
+            return new ProteanVerificationResponse(transactionId, PANStatus.ACTIVE.getDisplayName(), true);
+        }
+        // Odd digit, or non-digit ending (shouldn't happen with proper validation) = Inactive
+        return new ProteanVerificationResponse(transactionId, PANStatus.INACTIVE.getDisplayName(), false);
+    }
+
+    private void sendJson(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.chumani.production.panverification.util;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deadline
+ * When the caller stops waiting for a request, as a System.nanoTime() instant, passed down
+ * explicitly with the request's trace. Work that cannot finish in the remaining time is skipped.
+ * A deadline can also be cancelled early, e.g. when the client has gone away, after which it
+ * counts as expired and runs its cancellation actions (aborting in-flight calls). Actions are
+ * deregistered once the work they would abort is done, so a long request with many attempts
+ * does not accumulate them.
+ *
+ * {@link #none()} never expires and cannot be cancelled, for work not tied to a waiting client.
+ */
+public final class Deadline {
+
+    private static final Deadline NONE = new Deadline(0, false);
+    private static final Runnable NO_OP = () -> {};
+
+    private final long deadlineNanos;
+    private final boolean bounded;
+    private final Set<Runnable> cancelActions = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    private Deadline(long deadlineNanos, boolean bounded) {
+        this.deadlineNanos = deadlineNanos;
+        this.bounded = bounded;
+    }
+
+    /**
+     * A deadline timeout after startNanos (a System.nanoTime() value)
+     */
+    public static Deadline after(long startNanos, Duration timeout) {
+        return new Deadline(startNanos + timeout.toNanos(), true);
+    }
+
+    public static Deadline none() {
+        return NONE;
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    /**
+     * Time left, 0 once expired or cancelled; Long.MAX_VALUE without a deadline
+     */
+    public long remainingNanos() {
+        if (cancelled) {
+            return 0;
+        }
+        if (!bounded) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, deadlineNanos - System.nanoTime());
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() == 0;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Expire the deadline now and run the cancellation actions; no effect on {@link #none()}
+     */
+    public void cancel() {
+        if (this == NONE) {
+            return;
+        }
+        cancelled = true;
+        cancelActions.forEach(this::runOnce);
+    }
+
+    /**
+     * Run the action when the deadline is cancelled, at once if it already was. Returns what
+     * deregisters it: call that when the work the action would abort has finished.
+     */
+    public Runnable onCancel(Runnable action) {
+        if (this == NONE) {
+            return NO_OP;
+        }
+        // A distinct entry per registration, even for the same action
+        Runnable registration = () -> action.run();
+        cancelActions.add(registration);
+        if (cancelled) {
+            runOnce(registration);
+        }
+        return () -> cancelActions.remove(registration);
+    }
+
+    // Whoever removes the registration runs it, so a cancel racing onCancel runs it only once
+    private void runOnce(Runnable registration) {
+        if (cancelActions.remove(registration)) {
+            try {
+                registration.run();
+            } catch (RuntimeException e) {
+                // An action failing must not stop the others or the caller cancelling
+            }
+        }
+    }
+}
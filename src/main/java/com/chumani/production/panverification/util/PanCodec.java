@@ -0,0 +1,152 @@
+package com.chumani.production.panverification.util;
+
+/**
+ * PAN Codec
+ * Validates a PAN and packs it into a long in one pass, without allocating. A PAN is five
+ * letters, four digits and a letter (the fourth letter is P for individuals), so the key needs
+ * 44 bits: 5 bits per letter and 14 for the number, laid out in PAN order from the high bits.
+ * Keys therefore sort like the PANs they encode.
+ *
+ * Masked PANs ("XXXX" + characters 5-8 + the last letter) render from the key straight into
+ * a caller's buffer.
+ */
+public final class PanCodec {
+
+    /** Returned by {@link #encode} for anything that is not a valid PAN */
+    public static final long INVALID = -1L;
+
+    public static final int PAN_LENGTH = 10;
+    public static final int MASKED_LENGTH = 9;
+    public static final String INVALID_MASK = "INVALID_PAN";
+
+    private static final int LETTER_BITS = 5;
+    private static final int NUMBER_BITS = 14;
+    private static final long LETTER_MASK = (1L << LETTER_BITS) - 1;
+    private static final long NUMBER_MASK = (1L << NUMBER_BITS) - 1;
+
+    // Bit offsets of the letters at PAN positions 0-4, the number and the check letter
+    private static final int[] LETTER_SHIFTS = {39, 34, 29, 24, 19};
+    private static final int NUMBER_SHIFT = 5;
+    private static final int CHECK_SHIFT = 0;
+
+    private PanCodec() {}
+
+    /**
+     * Pack a PAN matching [A-Z]{3}P[A-Z][0-9]{4}[A-Z] into its key, or {@link #INVALID}
+     */
+    public static long encode(CharSequence pan) {
+        if (pan == null || pan.length() != PAN_LENGTH || pan.charAt(3) != 'P') {
+            return INVALID;
+        }
+        long key = 0;
+        for (int i = 0; i < LETTER_SHIFTS.length; i++) {
+            int letter = pan.charAt(i) - 'A';
+            if (letter < 0 || letter > 25) {
+                return INVALID;
+            }
+            key |= (long) letter << LETTER_SHIFTS[i];
+        }
+        int number = 0;
+        for (int i = 5; i < 9; i++) {
+            int digit = pan.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID;
+            }
+            number = number * 10 + digit;
+        }
+        int check = pan.charAt(9) - 'A';
+        if (check < 0 || check > 25) {
+            return INVALID;
+        }
+        return key | (long) number << NUMBER_SHIFT | (long) check << CHECK_SHIFT;
+    }
+
+    public static boolean isValid(CharSequence pan) {
+        return encode(pan) != INVALID;
+    }
+
+    /**
+     * The PAN a key was encoded from
+     */
+    public static String decode(long key) {
+        checkKey(key);
+        char[] pan = new char[PAN_LENGTH];
+        for (int i = 0; i < LETTER_SHIFTS.length; i++) {
+            pan[i] = letterAt(key, LETTER_SHIFTS[i]);
+        }
+        writeNumber(key, pan, 5);
+        pan[9] = letterAt(key, CHECK_SHIFT);
+        return new String(pan);
+    }
+
+    /**
+     * Write the masked PAN (MASKED_LENGTH chars) into buffer at offset; returns the end offset
+     */
+    public static int mask(long key, char[] buffer, int offset) {
+        checkKey(key);
+        buffer[offset] = 'X';
+        buffer[offset + 1] = 'X';
+        buffer[offset + 2] = 'X';
+        buffer[offset + 3] = 'X';
+        buffer[offset + 4] = letterAt(key, LETTER_SHIFTS[4]);
+        // Characters 6-8: the first three digits
+        int number = (int) ((key >>> NUMBER_SHIFT) & NUMBER_MASK);
+        buffer[offset + 5] = (char) ('0' + number / 1000);
+        buffer[offset + 6] = (char) ('0' + number / 100 % 10);
+        buffer[offset + 7] = (char) ('0' + number / 10 % 10);
+        buffer[offset + 8] = letterAt(key, CHECK_SHIFT);
+        return offset + MASKED_LENGTH;
+    }
+
+    /**
+     * Append the masked PAN, or INVALID_PAN, to a reusable builder
+     */
+    public static StringBuilder appendMasked(StringBuilder builder, long key) {
+        if (key == INVALID) {
+            return builder.append(INVALID_MASK);
+        }
+        builder.append('X').append('X').append('X').append('X').append(letterAt(key, LETTER_SHIFTS[4]));
+        int number = (int) ((key >>> NUMBER_SHIFT) & NUMBER_MASK);
+        return builder.append((char) ('0' + number / 1000))
+            .append((char) ('0' + number / 100 % 10))
+            .append((char) ('0' + number / 10 % 10))
+            .append(letterAt(key, CHECK_SHIFT));
+    }
+
+    /**
+     * Masked form of a key for log messages, or INVALID_PAN
+     */
+    public static String mask(long key) {
+        if (key == INVALID) {
+            return INVALID_MASK;
+        }
+        char[] masked = new char[MASKED_LENGTH];
+        mask(key, masked, 0);
+        return new String(masked);
+    }
+
+    /**
+     * Masked form of a PAN for log messages, or INVALID_PAN
+     */
+    public static String mask(CharSequence pan) {
+        return mask(encode(pan));
+    }
+
+    private static char letterAt(long key, int shift) {
+        return (char) ('A' + ((key >>> shift) & LETTER_MASK));
+    }
+
+    private static void writeNumber(long key, char[] buffer, int offset) {
+        int number = (int) ((key >>> NUMBER_SHIFT) & NUMBER_MASK);
+        for (int i = offset + 3; i >= offset; i--) {
+            buffer[i] = (char) ('0' + number % 10);
+            number /= 10;
+        }
+    }
+
+    private static void checkKey(long key) {
+        if (key < 0 || key >>> (LETTER_SHIFTS[0] + LETTER_BITS) != 0) {
+            throw new IllegalArgumentException("Not a PAN key: " + key);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.chumani.production.panverification.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Request Trace
+ * Trace id and stage timings of one API request, created by the trace filter and passed down
+ * explicitly to the service and upstream layers (attempts run on other threads, so no
+ * thread-local lookup). Rendered as a Server-Timing header value and for the slow-request log.
+ *
+ * Stages may be recorded concurrently; at most MAX_STAGES are kept, later ones are dropped.
+ * {@link #untraced()} records nothing, for work not tied to a request.
+ */
+public final class RequestTrace {
+
+    /** Request attribute holding the current request's trace */
+    public static final String ATTRIBUTE = "com.chumani.production.panverification.util.RequestTrace";
+
+    static final int MAX_STAGES = 24;
+
+    /**
+     * A timed part of the request; Server-Timing metric names
+     */
+    public enum Stage {
+        VALIDATION("validation"),
+        DB_INSERT("db-insert"),
+        UPSTREAM("upstream"),
+        ATTEMPT("attempt"),
+        BACKOFF("backoff"),
+        DB_WRITE("db-write"),
+        TOTAL("total");
+
+        private final String metricName;
+
+        Stage(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+    }
+
+    private static final RequestTrace UNTRACED = new RequestTrace(null, 0, false);
+
+    private final String traceId;
+    private final long startNanos;
+    private final boolean recording;
+    private final AtomicInteger count = new AtomicInteger();
+    private final Stage[] stages;
+    private final int[] attempts;
+    private final String[] descriptions;
+    private final long[] durations;
+
+    private RequestTrace(String traceId, long startNanos, boolean recording) {
+        this.traceId = traceId;
+        this.startNanos = startNanos;
+        this.recording = recording;
+        int capacity = recording ? MAX_STAGES : 0;
+        stages = new Stage[capacity];
+        attempts = new int[capacity];
+        descriptions = new String[capacity];
+        durations = new long[capacity];
+    }
+
+    /**
+     * A trace for a request that started now
+     */
+    public static RequestTrace start(String traceId) {
+        return new RequestTrace(traceId, System.nanoTime(), true);
+    }
+
+    public static RequestTrace untraced() {
+        return UNTRACED;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    public void record(Stage stage, long elapsedNanos) {
+        record(stage, 0, null, elapsedNanos);
+    }
+
+    /**
+     * Record a stage; attempt (if above 0) numbers the metric name, description is a token
+     */
+    public void record(Stage stage, int attempt, String description, long elapsedNanos) {
+        if (!recording) {
+            return;
+        }
+        int index = count.getAndIncrement();
+        if (index >= MAX_STAGES) {
+            return;
+        }
+        attempts[index] = attempt;
+        descriptions[index] = description;
+        durations[index] = elapsedNanos;
+        // Set last: a slot still being filled when the header is rendered has no stage and is skipped
+        stages[index] = stage;
+    }
+
+    /**
+     * Recorded stages as a Server-Timing header value, e.g. {@code upstream;dur=12.345;desc=success}
+     */
+    public String toServerTiming() {
+        int recorded = Math.min(count.get(), MAX_STAGES);
+        StringBuilder header = new StringBuilder(32 * recorded);
+        for (int i = 0; i < recorded; i++) {
+            Stage stage = stages[i];
+            if (stage == null) {
+                continue;
+            }
+            if (!header.isEmpty()) {
+                header.append(", ");
+            }
+            header.append(stage.getMetricName());
+            if (attempts[i] > 0) {
+                header.append('-').append(attempts[i]);
+            }
+            header.append(";dur=");
+            appendMillis(header, durations[i]);
+            if (descriptions[i] != null) {
+                header.append(";desc=").append(descriptions[i]);
+            }
+        }
+        return header.toString();
+    }
+
+    // Milliseconds with microsecond precision
+    private static void appendMillis(StringBuilder builder, long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        builder.append(micros / 1000).append('.');
+        long fraction = micros % 1000;
+        if (fraction < 100) {
+            builder.append('0');
+        }
+        if (fraction < 10) {
+            builder.append('0');
+        }
+        builder.append(fraction);
+    }
+}
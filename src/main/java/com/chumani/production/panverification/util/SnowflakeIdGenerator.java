@@ -0,0 +1,113 @@
+package com.chumani.production.panverification.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake ID Generator
+ * Unique, time-ordered 63-bit ids: milliseconds since 2024-01-01 (41 bits, ~69 years), node id
+ * (10 bits) and a per-millisecond sequence (12 bits, 4096 ids per ms). Lock-free: the last
+ * timestamp and sequence share one AtomicLong advanced by CAS.
+ *
+ * Ids never go backwards. If the clock steps back, ids continue from the last timestamp; once a
+ * millisecond's sequence is used up, ids borrow the next millisecond instead of waiting.
+ * Rendered as 13 Crockford base-32 characters, fixed width, so strings sort like the ids.
+ */
+public final class SnowflakeIdGenerator {
+
+    public static final long EPOCH_MILLIS = 1_704_067_200_000L;
+
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    public static final int ENCODED_LENGTH = 13;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final long nodeBits;
+
+    // (milliseconds since epoch << SEQUENCE_BITS) | sequence of the last id issued
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = nodeId << SEQUENCE_BITS;
+    }
+
+    public long nextId() {
+        while (true) {
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            long last = state.get();
+            long next = now > last >>> SEQUENCE_BITS
+                ? now << SEQUENCE_BITS
+                // Same (or an earlier) millisecond: next sequence, carrying into the next millisecond
+                : last + 1;
+            if (state.compareAndSet(last, next)) {
+                return (next >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * A new id rendered in base 32 after the prefix
+     */
+    public String nextId(String prefix) {
+        char[] chars = new char[prefix.length() + ENCODED_LENGTH];
+        prefix.getChars(0, prefix.length(), chars, 0);
+        encode(nextId(), chars, prefix.length());
+        return new String(chars);
+    }
+
+    /**
+     * Write the id's ENCODED_LENGTH base-32 characters into buffer at offset
+     */
+    public static void encode(long id, char[] buffer, int offset) {
+        for (int i = offset + ENCODED_LENGTH - 1; i >= offset; i--) {
+            buffer[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+    }
+
+    public static String encode(long id) {
+        char[] chars = new char[ENCODED_LENGTH];
+        encode(id, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * Parse the ENCODED_LENGTH characters at offset (e.g. after a prefix); -1 if not an encoded id
+     */
+    public static long decode(CharSequence encoded, int offset) {
+        if (encoded == null || encoded.length() != offset + ENCODED_LENGTH || encoded.charAt(offset) > '7') {
+            return -1;
+        }
+        long id = 0;
+        for (int i = offset; i < offset + ENCODED_LENGTH; i++) {
+            int value = valueOf(encoded.charAt(i));
+            if (value < 0) {
+                return -1;
+            }
+            id = id << 5 | value;
+        }
+        return id;
+    }
+
+    /**
+     * Wall-clock time (epoch milliseconds) an id was generated at
+     */
+    public static long timestampMillis(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + EPOCH_MILLIS;
+    }
+
+    private static int valueOf(char c) {
+        for (int i = 0; i < ALPHABET.length; i++) {
+            if (ALPHABET[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,23 @@
+package com.chumani.production.panverification.util;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Worker Threads
+ * Thread factories for the service's executors, numbering threads prefix1, prefix2, ...
+ * Platform threads are daemons, so a stuck call never holds up JVM exit. Virtual threads
+ * (pan.verification.threads.virtual) are cheap to block: executors whose size is only there
+ * to bound thread count create one per task instead, and keep any concurrency limit with a
+ * semaphore or their existing queue.
+ */
+public final class WorkerThreads {
+
+    private WorkerThreads() {
+    }
+
+    public static ThreadFactory factory(String prefix, boolean virtual) {
+        return virtual
+            ? Thread.ofVirtual().name(prefix, 1).factory()
+            : Thread.ofPlatform().name(prefix, 1).daemon(true).factory();
+    }
+}
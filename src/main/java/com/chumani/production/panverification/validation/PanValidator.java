@@ -0,0 +1,16 @@
+package com.chumani.production.panverification.validation;
+
+import com.chumani.production.panverification.util.PanCodec;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+/**
+ * Validator for {@link ValidPan}
+ */
+public class PanValidator implements ConstraintValidator<ValidPan, CharSequence> {
+
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        return value == null || PanCodec.isValid(value);
+    }
+}
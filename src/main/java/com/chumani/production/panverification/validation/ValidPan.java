@@ -0,0 +1,27 @@
+package com.chumani.production.panverification.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Valid PAN Constraint
+ * The value is a PAN: 3 letters, P, a letter, 4 digits and a letter. Null is valid
+ * (combine with @NotBlank). Checked by PanCodec instead of a regular expression.
+ */
+@Documented
+@Constraint(validatedBy = PanValidator.class)
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ValidPan {
+
+    String message() default "PAN format must be: 3 alphabets + P + 1 alphabet + 4 digits + 1 alphabet";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,176 @@
+package com.chumani.production.panverification.web;
+
+import com.chumani.production.panverification.service.TraceService;
+import com.chumani.production.panverification.util.RequestTrace;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Trace Context Filter
+ * Gives each API request a trace id: the first acceptable value among the configured incoming
+ * headers, else the trace id of a W3C traceparent header, else a generated one. The id is echoed
+ * in the X-Trace-Id response header, put in the logging MDC and carried in the request's
+ * RequestTrace, which the controller and services pass down and record stage timings into.
+ *
+ * The stage breakdown is sent as a Server-Timing header, set just before the response is
+ * committed: on its first body write, flush or error (so 400s, validation failures and
+ * idempotency conflicts carry it too), else when the request completes. Streamed NDJSON
+ * responses commit their headers before any work is done, so they carry none.
+ *
+ * With the slow-request log enabled, requests taking longer than the threshold are logged at
+ * WARN with their stage breakdown.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TraceContextFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TraceContextFilter.class);
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+    static final String MDC_TRACE_ID = "traceId";
+    private static final String TRACEPARENT_HEADER = "traceparent";
+
+    @Autowired
+    private TraceService traceService;
+
+    @Value("${pan.verification.tracing.incoming-headers:X-Trace-Id,X-Correlation-Id,X-Request-Id}")
+    private String[] incomingHeaders;
+
+    @Value("${pan.verification.tracing.server-timing.enabled:true}")
+    private boolean serverTimingEnabled;
+
+    @Value("${pan.verification.tracing.slow-request-log.enabled:false}")
+    private boolean slowRequestLogEnabled;
+
+    @Value("${pan.verification.tracing.slow-request-log.threshold-ms:2000}")
+    private long slowRequestThresholdMs;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTrace trace = RequestTrace.start(resolveTraceId(request));
+        request.setAttribute(RequestTrace.ATTRIBUTE, trace);
+        response.setHeader(TRACE_ID_HEADER, trace.getTraceId());
+        MDC.put(MDC_TRACE_ID, trace.getTraceId());
+        ServerTimingResponse timedResponse = serverTimingEnabled ? new ServerTimingResponse(response, trace) : null;
+        try {
+            chain.doFilter(request, timedResponse != null ? timedResponse : response);
+            // Nothing written (e.g. an empty body): the headers are still open
+            if (timedResponse != null && !request.isAsyncStarted()) {
+                timedResponse.writeServerTiming();
+            }
+        } finally {
+            // A streamed response is still being written; its duration is not known here
+            if (slowRequestLogEnabled && !request.isAsyncStarted()) {
+                logIfSlow(request, response, trace);
+            }
+            MDC.remove(MDC_TRACE_ID);
+        }
+    }
+
+    /**
+     * Sets Server-Timing once, before anything commits the response's headers
+     */
+    private static final class ServerTimingResponse extends HttpServletResponseWrapper {
+
+        private final RequestTrace trace;
+        private boolean written;
+
+        ServerTimingResponse(HttpServletResponse response, RequestTrace trace) {
+            super(response);
+            this.trace = trace;
+        }
+
+        void writeServerTiming() {
+            if (written) {
+                return;
+            }
+            written = true;
+            String contentType = getContentType();
+            if (isCommitted() || (contentType != null && contentType.startsWith(MediaType.APPLICATION_NDJSON_VALUE))) {
+                return;
+            }
+            trace.record(RequestTrace.Stage.TOTAL, System.nanoTime() - trace.getStartNanos());
+            setHeader(SERVER_TIMING_HEADER, trace.toServerTiming());
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeServerTiming();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeServerTiming();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeServerTiming();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeServerTiming();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeServerTiming();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeServerTiming();
+            super.sendRedirect(location);
+        }
+    }
+
+    private String resolveTraceId(HttpServletRequest request) {
+        for (String header : incomingHeaders) {
+            String candidate = request.getHeader(header.trim());
+            if (traceService.isAcceptableTraceId(candidate)) {
+                return candidate;
+            }
+        }
+        String fromTraceparent = traceService.fromTraceparent(request.getHeader(TRACEPARENT_HEADER));
+        return fromTraceparent != null ? fromTraceparent : traceService.generateTraceId();
+    }
+
+    private void logIfSlow(HttpServletRequest request, HttpServletResponse response, RequestTrace trace) {
+        long elapsedMs = (System.nanoTime() - trace.getStartNanos()) / 1_000_000;
+        if (elapsedMs < slowRequestThresholdMs) {
+            return;
+        }
+        logger.warn("Slow request - TraceId: {}, Method: {}, URI: {}, Status: {}, DurationMs: {}, Stages: [{}]",
+                   trace.getTraceId(), request.getMethod(), request.getRequestURI(), response.getStatus(),
+                   elapsedMs, trace.toServerTiming());
+    }
+}
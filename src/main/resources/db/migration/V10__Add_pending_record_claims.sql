@@ -0,0 +1,8 @@
+-- Async records are claimed by the instance queueing or completing them until claimed_until;
+-- recovery on any instance only takes pending records whose claim has lapsed
+ALTER TABLE pan_verification_records ADD COLUMN claimed_by VARCHAR(36);
+ALTER TABLE pan_verification_records ADD COLUMN claimed_until TIMESTAMP;
+
+-- Records pending during the upgrade keep the previous two-minute recovery grace
+UPDATE pan_verification_records SET claimed_until = request_timestamp + INTERVAL '2 minutes'
+WHERE response_timestamp IS NULL;
@@ -0,0 +1,4 @@
+-- Record ids come from a pooled sequence (50 ids per fetch) so inserts can be JDBC-batched
+CREATE SEQUENCE IF NOT EXISTS pan_verification_records_seq INCREMENT BY 50;
+
+SELECT setval('pan_verification_records_seq', COALESCE((SELECT MAX(id) FROM pan_verification_records), 0) + 1, false);
@@ -0,0 +1,2 @@
+-- Serves keyset pages of a PAN's history: WHERE pan_number = ? ORDER BY created_at DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_pan_created_at_id ON pan_verification_records(pan_number, created_at, id);
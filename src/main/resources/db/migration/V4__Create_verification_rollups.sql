@@ -0,0 +1,34 @@
+-- Pre-aggregated reporting rollups, folded in by the rollup job behind a high-water mark
+CREATE TABLE verification_rollups_hourly (
+    id BIGINT PRIMARY KEY,
+    bucket_start TIMESTAMP NOT NULL,
+    status VARCHAR(20),
+    error_code VARCHAR(255),
+    verification_count BIGINT NOT NULL,
+    aadhaar_linked_count BIGINT NOT NULL,
+    latency_sum_ms BIGINT NOT NULL,
+    latency_max_ms BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+CREATE SEQUENCE verification_rollups_hourly_seq INCREMENT BY 50;
+CREATE INDEX idx_rollups_hourly_bucket ON verification_rollups_hourly(bucket_start);
+
+CREATE TABLE verification_rollups_daily (
+    id BIGINT PRIMARY KEY,
+    bucket_start TIMESTAMP NOT NULL,
+    status VARCHAR(20),
+    error_code VARCHAR(255),
+    verification_count BIGINT NOT NULL,
+    aadhaar_linked_count BIGINT NOT NULL,
+    latency_sum_ms BIGINT NOT NULL,
+    latency_max_ms BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+CREATE SEQUENCE verification_rollups_daily_seq INCREMENT BY 50;
+CREATE INDEX idx_rollups_daily_bucket ON verification_rollups_daily(bucket_start);
+
+CREATE TABLE rollup_watermarks (
+    name VARCHAR(50) PRIMARY KEY,
+    watermark TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
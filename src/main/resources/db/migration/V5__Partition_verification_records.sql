@@ -0,0 +1,65 @@
+-- Rebuild pan_verification_records to match the entity, range-partitioned by month of created_at.
+-- Partitions are named pan_verification_records_yYYYYmMM; the partition maintenance job keeps
+-- future months created and the retention job archives and drops expired ones.
+ALTER TABLE pan_verification_records RENAME TO pan_verification_records_v1;
+DROP INDEX IF EXISTS idx_pan_verification_pan_number;
+DROP INDEX IF EXISTS idx_pan_verification_reference_number;
+DROP INDEX IF EXISTS idx_pan_created_at_id;
+
+-- Unique constraints on a partitioned table must include created_at, so reference_number and
+-- transaction_id are indexed but no longer enforced unique across partitions (both are generated)
+CREATE TABLE pan_verification_records (
+    id BIGINT NOT NULL,
+    pan_number VARCHAR(10) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    aadhaar_linked BOOLEAN,
+    reference_number VARCHAR(50) NOT NULL,
+    transaction_id VARCHAR(50) NOT NULL,
+    trace_id VARCHAR(50),
+    request_timestamp TIMESTAMP NOT NULL,
+    response_timestamp TIMESTAMP,
+    persisted_timestamp TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    error_code VARCHAR(255),
+    error_message VARCHAR(500),
+    retry_count INTEGER NOT NULL DEFAULT 0,
+    served_from_cache BOOLEAN NOT NULL DEFAULT FALSE,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- One partition per month from the oldest existing record to three months ahead
+DO $$
+DECLARE
+    partition_month DATE := date_trunc('month', COALESCE((SELECT MIN(created_at) FROM pan_verification_records_v1), now()));
+    last_month DATE := date_trunc('month', now()) + INTERVAL '3 months';
+BEGIN
+    WHILE partition_month <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF pan_verification_records FOR VALUES FROM (%L) TO (%L)',
+                       'pan_verification_records_' || to_char(partition_month, '"y"YYYY"m"MM'),
+                       partition_month, (partition_month + INTERVAL '1 month')::date);
+        partition_month := partition_month + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+-- Catches rows outside every monthly partition (e.g. if maintenance stopped running); kept empty
+CREATE TABLE pan_verification_records_default PARTITION OF pan_verification_records DEFAULT;
+
+-- V1 rows completed synchronously and had no transaction id; the reference number stands in
+INSERT INTO pan_verification_records (id, pan_number, name, status, aadhaar_linked, reference_number,
+                                      transaction_id, request_timestamp, response_timestamp,
+                                      persisted_timestamp, created_at, retry_count, served_from_cache)
+SELECT id, pan_number, name, status, aadhaar_linked, reference_number,
+       reference_number, created_at, created_at, created_at, created_at, 0, FALSE
+FROM pan_verification_records_v1;
+
+DROP TABLE pan_verification_records_v1;
+
+-- Created on the parent, so every partition (present and future) gets its own copy
+CREATE INDEX idx_pan_number ON pan_verification_records(pan_number);
+CREATE INDEX idx_reference_number ON pan_verification_records(reference_number);
+CREATE INDEX idx_transaction_id ON pan_verification_records(transaction_id);
+CREATE INDEX idx_created_at ON pan_verification_records(created_at);
+CREATE INDEX idx_response_timestamp ON pan_verification_records(response_timestamp);
+CREATE INDEX idx_pan_created_at_id ON pan_verification_records(pan_number, created_at, id);
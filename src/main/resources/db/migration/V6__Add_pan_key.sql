@@ -0,0 +1,25 @@
+-- PanCodec key of pan_number: 5 bits per letter (A = 0) and 14 bits for the 4-digit number, in PAN
+-- order from bit 43 down, so PAN lookups compare and index 8-byte keys. Rows whose pan_number is
+-- not a valid PAN (possible for pre-V5 data) get -1.
+ALTER TABLE pan_verification_records ADD COLUMN pan_key BIGINT;
+
+-- Shifts are parenthesised: << and | share one precedence level in PostgreSQL
+UPDATE pan_verification_records SET pan_key = CASE
+    WHEN pan_number ~ '^[A-Z]{3}P[A-Z][0-9]{4}[A-Z]$' THEN
+          ((ascii(substr(pan_number, 1, 1)) - 65)::bigint << 39)
+        | ((ascii(substr(pan_number, 2, 1)) - 65)::bigint << 34)
+        | ((ascii(substr(pan_number, 3, 1)) - 65)::bigint << 29)
+        | ((ascii(substr(pan_number, 4, 1)) - 65)::bigint << 24)
+        | ((ascii(substr(pan_number, 5, 1)) - 65)::bigint << 19)
+        | (substr(pan_number, 6, 4)::bigint << 5)
+        | (ascii(substr(pan_number, 10, 1)) - 65)::bigint
+    ELSE -1
+END;
+
+ALTER TABLE pan_verification_records ALTER COLUMN pan_key SET NOT NULL;
+
+-- PAN lookups and history pages go through the key; the string indexes only cost writes now
+CREATE INDEX idx_pan_key ON pan_verification_records(pan_key);
+CREATE INDEX idx_pan_key_created_at_id ON pan_verification_records(pan_key, created_at, id);
+DROP INDEX IF EXISTS idx_pan_number;
+DROP INDEX IF EXISTS idx_pan_created_at_id;
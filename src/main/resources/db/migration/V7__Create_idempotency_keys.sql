@@ -0,0 +1,15 @@
+-- Client Idempotency-Keys for POST /api/pan/verify: claimed by inserting the row (the primary key
+-- makes it atomic across instances), then holding the first request's response for replay
+CREATE TABLE idempotency_keys (
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    state VARCHAR(20) NOT NULL,
+    status_code INTEGER,
+    location VARCHAR(255),
+    response_body VARCHAR(4000),
+    claimed_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+-- The sweeper deletes by expiry
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
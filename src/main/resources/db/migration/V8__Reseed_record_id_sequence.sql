@@ -0,0 +1,8 @@
+-- V2 seeded the sequence at MAX(id) + 1, but Hibernate's pooled optimizer takes the first value it
+-- fetches as the top of a 50-id block, so it handed out ids from MAX(id) - 48 up: duplicates the
+-- (id, created_at) primary key does not catch. Move the next value to at least MAX(id) + 50, and
+-- never behind the block the sequence would hand out next anyway.
+SELECT setval('pan_verification_records_seq',
+              GREATEST((SELECT last_value FROM pan_verification_records_seq) + 50,
+                       COALESCE((SELECT MAX(id) FROM pan_verification_records), 0) + 50),
+              false);
@@ -0,0 +1,6 @@
+-- Each claim records when its lease runs out: the claiming request's deadline plus the configured
+-- lease, so a request allowed to run longer than the lease is not taken over while still running.
+-- Claims in progress during the upgrade get the longest request timeout (10 min) plus the lease.
+ALTER TABLE idempotency_keys ADD COLUMN lease_expires_at TIMESTAMP;
+UPDATE idempotency_keys SET lease_expires_at = claimed_at + INTERVAL '11 minutes';
+ALTER TABLE idempotency_keys ALTER COLUMN lease_expires_at SET NOT NULL;
@@ -0,0 +1,115 @@
+package com.chumani.production.panverification.journal;
+
+import com.chumani.production.panverification.enums.AuditEntryType;
+import com.chumani.production.panverification.enums.PANStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.convert.ConversionService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Segment reuse across restarts and segment retention, against a journal in a temporary directory
+ */
+class AuditJournalTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    // 64-byte header plus seven 128-byte entries
+    private static final int ENTRIES_PER_SEGMENT = 7;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void restartContinuesTheLastSegment() throws Exception {
+        ApplicationContextRunner runner = journal("pan.verification.audit.journal.segment-size=64KB");
+
+        runner.run(context -> appendAndAwait(context.getBean(AuditJournal.class), context.getBean(MeterRegistry.class), 3));
+        runner.run(context -> {
+            AuditJournal journal = context.getBean(AuditJournal.class);
+            appendAndAwait(journal, context.getBean(MeterRegistry.class), 2);
+            assertEquals(5, journal.scan(null, null, null, 100).size());
+        });
+
+        assertEquals(1, segments().size());
+    }
+
+    @Test
+    void retentionKeepsTheNewestSegments() throws Exception {
+        ApplicationContextRunner runner = journal("pan.verification.audit.journal.segment-size=1KB",
+            "pan.verification.audit.journal.retention.max-segments=3");
+
+        runner.run(context -> {
+            AuditJournal journal = context.getBean(AuditJournal.class);
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            // Eight segments' worth; the last is left partly filled
+            appendAndAwait(journal, meterRegistry, 7 * ENTRIES_PER_SEGMENT + 1);
+
+            assertEquals(3, segments().size());
+            assertEquals(5, meterRegistry.counter("pan.audit.journal.segments.deleted").count());
+            assertEquals(2 * ENTRIES_PER_SEGMENT + 1, journal.scan(null, null, null, 100).size());
+        });
+    }
+
+    @Test
+    void startupDeletesSegmentsPastMaxAge() throws Exception {
+        ApplicationContextRunner runner = journal("pan.verification.audit.journal.segment-size=1KB");
+        runner.run(context -> appendAndAwait(context.getBean(AuditJournal.class), context.getBean(MeterRegistry.class),
+            2 * ENTRIES_PER_SEGMENT + 1));
+        assertEquals(3, segments().size());
+
+        // The first two segments were last written two hours ago; the third is still in use
+        for (Path segment : segments().subList(0, 2)) {
+            Files.setLastModifiedTime(segment, FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2)));
+        }
+        runner.withPropertyValues("pan.verification.audit.journal.retention.max-age=PT1H")
+            .run(context -> assertEquals(1, context.getBean(AuditJournal.class).scan(null, null, null, 100).size()));
+
+        assertEquals(1, segments().size());
+    }
+
+    private ApplicationContextRunner journal(String... properties) {
+        return new ApplicationContextRunner()
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            // Converts the DataSize and Duration @Value fields, as in the application
+            .withBean("conversionService", ConversionService.class, ApplicationConversionService::getSharedInstance)
+            .withUserConfiguration(AuditJournal.class)
+            .withPropertyValues("pan.verification.audit.journal.directory=" + directory)
+            .withPropertyValues(properties);
+    }
+
+    private static void appendAndAwait(AuditJournal journal, MeterRegistry meterRegistry, int entries)
+            throws InterruptedException {
+        double before = meterRegistry.counter("pan.audit.journal.appended").count();
+        for (int i = 0; i < entries; i++) {
+            journal.append(AuditEntryType.RESPONSE, System.currentTimeMillis(), "TRACE-" + i, "REF-" + i,
+                -1, PANStatus.ACTIVE, true, 0, false, 1000, null);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (meterRegistry.counter("pan.audit.journal.appended").count() < before + entries
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(before + entries, meterRegistry.counter("pan.audit.journal.appended").count());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> AuditJournalFormat.segmentNumber(file.getFileName().toString()) >= 0)
+                .sorted()
+                .toList();
+        }
+    }
+}
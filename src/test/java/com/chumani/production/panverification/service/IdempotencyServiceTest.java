@@ -0,0 +1,167 @@
+package com.chumani.production.panverification.service;
+
+import com.chumani.production.panverification.dto.PANVerificationRequest;
+import com.chumani.production.panverification.dto.PANVerificationResponse;
+import com.chumani.production.panverification.enums.IdempotencyState;
+import com.chumani.production.panverification.enums.PANStatus;
+import com.chumani.production.panverification.util.Deadline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Duplicates of an Idempotency-Key against a claim that is still running or was abandoned,
+ * with a lease much shorter than the request deadline
+ */
+@SpringBootTest(properties = {
+    "pan.verification.idempotency.lease=PT0.1S",
+    "pan.verification.idempotency.wait-timeout=PT0.5S",
+    "pan.verification.idempotency.poll-interval-ms=20"
+})
+@ActiveProfiles("test")
+class IdempotencyServiceTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ExecutorService callers;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        callers = Executors.newCachedThreadPool();
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void runningClaimIsNotTakenOverBeforeItsDeadline() throws Exception {
+        PANVerificationRequest request = request("AAEPA0001A");
+        CountDownLatch running = new CountDownLatch(1);
+        Future<ResponseEntity<PANVerificationResponse>> first = callers.submit(() ->
+            idempotencyService.execute("running-key", request, false, deadline(), () -> {
+                running.countDown();
+                await(release);
+                return ResponseEntity.ok(activeResponse());
+            }));
+        assertTrue(running.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // Well past the lease, still within the first request's deadline
+        Thread.sleep(300);
+        AtomicInteger duplicateRuns = new AtomicInteger();
+        ResponseStatusException conflict = assertThrows(ResponseStatusException.class, () ->
+            idempotencyService.execute("running-key", request, false, deadline(), () -> {
+                duplicateRuns.incrementAndGet();
+                return ResponseEntity.ok(activeResponse());
+            }));
+        assertEquals(HttpStatus.CONFLICT, conflict.getStatusCode());
+        assertEquals(0, duplicateRuns.get());
+
+        release.countDown();
+        assertEquals(HttpStatus.OK, first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getStatusCode());
+        ResponseEntity<PANVerificationResponse> replayed = idempotencyService.execute("running-key", request, false,
+            deadline(), () -> {
+                duplicateRuns.incrementAndGet();
+                return ResponseEntity.ok(activeResponse());
+            });
+        assertEquals("true", replayed.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(0, duplicateRuns.get());
+    }
+
+    @Test
+    void claimPastItsLeaseIsTakenOver() {
+        PANVerificationRequest request = request("AAEPA0002A");
+        // Left behind by an instance that died mid-request
+        LocalDateTime claimedAt = LocalDateTime.now().minusMinutes(5);
+        jdbcTemplate.update("INSERT INTO idempotency_keys (idempotency_key, request_hash, state, claimed_at, " +
+                "lease_expires_at, expires_at) VALUES (?, ?, ?, ?, ?, ?)", "abandoned-key",
+            IdempotencyService.fingerprint(request, false), IdempotencyState.IN_PROGRESS.name(), claimedAt,
+            claimedAt.plusMinutes(1), claimedAt.plusHours(24));
+
+        AtomicInteger runs = new AtomicInteger();
+        ResponseEntity<PANVerificationResponse> response = idempotencyService.execute("abandoned-key", request, false,
+            deadline(), () -> {
+                runs.incrementAndGet();
+                return ResponseEntity.ok(activeResponse());
+            });
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void expiredKeyIsReusableWithADifferentRequest() {
+        // Past its TTL, not yet deleted by the sweep
+        LocalDateTime claimedAt = LocalDateTime.now().minusHours(25);
+        jdbcTemplate.update("INSERT INTO idempotency_keys (idempotency_key, request_hash, state, claimed_at, " +
+                "lease_expires_at, expires_at) VALUES (?, ?, ?, ?, ?, ?)", "expired-key",
+            IdempotencyService.fingerprint(request("AAEPA0003A"), false), IdempotencyState.COMPLETED.name(), claimedAt,
+            claimedAt.plusMinutes(1), claimedAt.plusHours(24));
+
+        AtomicInteger runs = new AtomicInteger();
+        ResponseEntity<PANVerificationResponse> response = idempotencyService.execute("expired-key",
+            request("AAEPA0004A"), false, deadline(), () -> {
+                runs.incrementAndGet();
+                return ResponseEntity.ok(activeResponse());
+            });
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, runs.get());
+    }
+
+    private static Deadline deadline() {
+        return Deadline.after(System.nanoTime(), Duration.ofSeconds(30));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static PANVerificationResponse activeResponse() {
+        PANVerificationResponse response = new PANVerificationResponse();
+        response.setStatus(PANStatus.ACTIVE);
+        response.setAadhaarLinked(true);
+        response.setRetryCount(0);
+        return response;
+    }
+
+    private static PANVerificationRequest request(String pan) {
+        PANVerificationRequest request = new PANVerificationRequest();
+        request.setPan(pan);
+        request.setName("Test User");
+        return request;
+    }
+}
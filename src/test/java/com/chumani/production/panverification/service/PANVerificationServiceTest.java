@@ -0,0 +1,287 @@
+package com.chumani.production.panverification.service;
+
+import com.chumani.production.panverification.dto.PANVerificationRequest;
+import com.chumani.production.panverification.dto.PANVerificationResponse;
+import com.chumani.production.panverification.entity.PANVerificationRecord;
+import com.chumani.production.panverification.enums.PANStatus;
+import com.chumani.production.panverification.util.Deadline;
+import com.chumani.production.panverification.util.PanCodec;
+import com.chumani.production.panverification.util.RequestTrace;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifications against a Protean call that blocks until released, checking what the
+ * service holds while the upstream call is in progress
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PANVerificationServiceTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Autowired
+    private PANVerificationService service;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private ProteanAPIService proteanAPIService;
+
+    private HikariDataSource pool;
+    private ExecutorService callers;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pool = dataSource.unwrap(HikariDataSource.class);
+        callers = Executors.newCachedThreadPool();
+        release = new CountDownLatch(1);
+        awaitIdlePool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void holdsNoConnectionWhileUpstreamCallsBlock() throws Exception {
+        // Twice the pool: if each call pinned a connection, half would time out waiting for one
+        int concurrency = 2 * pool.getMaximumPoolSize();
+        CountDownLatch inUpstream = blockUpstream(concurrency);
+
+        List<Future<PANVerificationResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            PANVerificationRequest request = request(String.format("AAAPA%04dA", i));
+            responses.add(callers.submit(() -> service.verifyPAN(request, RequestTrace.untraced(), Deadline.none())));
+        }
+        assertTrue(inUpstream.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "all callers reached the upstream call");
+
+        // Background work (a recovery sweep, the record writer flushing earlier results) may briefly hold a
+        // connection; one held by a caller would stay out until its upstream call is released
+        awaitIdlePool();
+        HikariPoolMXBean poolStats = pool.getHikariPoolMXBean();
+        assertEquals(0, poolStats.getActiveConnections());
+        assertEquals(0, poolStats.getThreadsAwaitingConnection());
+
+        release.countDown();
+        for (Future<PANVerificationResponse> response : responses) {
+            assertNull(response.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getErrorCode());
+        }
+    }
+
+    @Test
+    void holdsNoConnectionWhileCompletingPendingVerification() throws Exception {
+        CountDownLatch inUpstream = blockUpstream(1);
+        String referenceNumber = service.createPendingVerification(request("AABPA0001A"), RequestTrace.untraced())
+            .getReferenceNumber();
+
+        Future<?> completion = callers.submit(() -> service.completePendingVerification(referenceNumber, false));
+        assertTrue(inUpstream.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        awaitIdlePool();
+        assertEquals(0, pool.getHikariPoolMXBean().getActiveConnections());
+
+        release.countDown();
+        completion.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(PANStatus.ACTIVE, service.getVerificationStatus(referenceNumber).orElseThrow().getStatus());
+    }
+
+    @Test
+    void leavesPendingRecordClaimedByAnotherInstance() {
+        when(proteanAPIService.verifyPANWithRetry(any(), any(), any(), any(), any())).thenReturn(activeResponse());
+        String referenceNumber = service.createPendingVerification(request("AAGPA0001A"), RequestTrace.untraced())
+            .getReferenceNumber();
+        claimElsewhere(referenceNumber, LocalDateTime.now().plusMinutes(5));
+
+        service.completePendingVerification(referenceNumber, false);
+
+        verify(proteanAPIService, never()).verifyPANWithRetry(any(), any(), any(), any(), any());
+        assertEquals(PANStatus.PENDING, service.getVerificationStatus(referenceNumber).orElseThrow().getStatus());
+    }
+
+    @Test
+    void takesOverPendingRecordOnceItsClaimLapses() throws Exception {
+        when(proteanAPIService.verifyPANWithRetry(any(), any(), any(), any(), any())).thenReturn(activeResponse());
+        String referenceNumber = service.createPendingVerification(request("AAGPA0002A"), RequestTrace.untraced())
+            .getReferenceNumber();
+        claimElsewhere(referenceNumber, LocalDateTime.now().minusSeconds(1));
+
+        service.completePendingVerification(referenceNumber, false);
+
+        // A recovery sweep may have taken it first; either way it completes once
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (service.getVerificationStatus(referenceNumber).orElseThrow().getStatus() == PANStatus.PENDING
+               && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(PANStatus.ACTIVE, service.getVerificationStatus(referenceNumber).orElseThrow().getStatus());
+        verify(proteanAPIService, times(1)).verifyPANWithRetry(eq("AAGPA0002A"), any(), any(), any(), any());
+    }
+
+    @Test
+    void recordsEveryBatchItemWhenAnItemAndTheConsumerFail() throws Exception {
+        String failingPan = "AACPA0000A";
+        when(proteanAPIService.verifyPANWithRetry(any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            if (failingPan.equals(invocation.getArgument(0))) {
+                throw new IllegalStateException("upstream client bug");
+            }
+            return activeResponse();
+        });
+        List<PANVerificationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            requests.add(request(String.format("AACPA%04dA", i)));
+        }
+
+        // The client goes away after the first streamed item
+        UncheckedIOException gone = new UncheckedIOException(new IOException("Broken pipe"));
+        UncheckedIOException thrown = assertThrows(UncheckedIOException.class, () -> service.verifyBatch(requests,
+            RequestTrace.untraced(), Deadline.after(System.nanoTime(), Duration.ofSeconds(TIMEOUT_SECONDS)),
+            response -> { throw gone; }));
+        assertEquals(gone, thrown);
+
+        // Records reach the database through the write-behind writer
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (recordedCount(requests) < requests.size() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(requests.size(), recordedCount(requests));
+        assertEquals("VERIFICATION_FAILED", service.getVerificationHistory(PanCodec.encode(failingPan), null, 1)
+            .getItems().get(0).getErrorCode());
+    }
+
+    @Test
+    void recordsUpstreamErrorsWithOversizedMessages() throws Exception {
+        PANVerificationResponse failure = new PANVerificationResponse();
+        failure.setErrorCode("API_FAILURE");
+        failure.setErrorMessage("Protean API returned 502: " + "<html>Bad Gateway</html>".repeat(100));
+        failure.setRetryCount(2);
+        when(proteanAPIService.verifyPANWithRetry(any(), any(), any(), any(), any())).thenReturn(failure);
+
+        String pan = "AADPA0001A";
+        PANVerificationResponse response = service.verifyPAN(request(pan), RequestTrace.untraced(), Deadline.none());
+        assertEquals("API_FAILURE", response.getErrorCode());
+
+        List<PANVerificationRequest> verified = List.of(request(pan));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (recordedCount(verified) == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        PANVerificationResponse recorded = service.getVerificationHistory(PanCodec.encode(pan), null, 1).getItems().get(0);
+        assertEquals("API_FAILURE", recorded.getErrorCode());
+        assertEquals(PANVerificationRecord.ERROR_MESSAGE_MAX_LENGTH, recorded.getErrorMessage().length());
+    }
+
+    @Test
+    void limiterShedResultsAreNotServedFromCache() {
+        assertShedResultNotCached(ProteanAPIService.CONCURRENCY_LIMITED, "AAFPA0001A");
+    }
+
+    @Test
+    void bulkheadRejectionsAreNotServedFromCache() {
+        assertShedResultNotCached(ProteanAPIService.BULKHEAD_FULL, "AAFPA0002A");
+    }
+
+    // A shed call followed by a Protean answer: the second verification must reach Protean again
+    private void assertShedResultNotCached(String errorCode, String pan) {
+        PANVerificationResponse shed = new PANVerificationResponse();
+        shed.setErrorCode(errorCode);
+        shed.setRetryCount(0);
+        when(proteanAPIService.verifyPANWithRetry(any(), any(), any(), any(), any()))
+            .thenReturn(shed)
+            .thenReturn(activeResponse());
+
+        assertEquals(errorCode, service.verifyPAN(request(pan), RequestTrace.untraced(), Deadline.none()).getErrorCode());
+        PANVerificationResponse answered = service.verifyPAN(request(pan), RequestTrace.untraced(), Deadline.none());
+
+        assertNull(answered.getErrorCode());
+        assertEquals(PANStatus.ACTIVE, answered.getStatus());
+        verify(proteanAPIService, times(2)).verifyPANWithRetry(eq(pan), any(), any(), any(), any());
+    }
+
+    // Hand a pending record to another (simulated) instance until the given time
+    private void claimElsewhere(String referenceNumber, LocalDateTime claimedUntil) {
+        jdbcTemplate.update("UPDATE pan_verification_records SET claimed_by = 'other-instance', claimed_until = ? "
+            + "WHERE reference_number = ?", claimedUntil, referenceNumber);
+    }
+
+    private int recordedCount(List<PANVerificationRequest> requests) {
+        int recorded = 0;
+        for (PANVerificationRequest request : requests) {
+            recorded += service.getVerificationHistory(PanCodec.encode(request.getPan()), null, 10).getItems().size();
+        }
+        return recorded;
+    }
+
+    /**
+     * Make Protean calls block until released; the latch opens once calls callers are waiting
+     */
+    private CountDownLatch blockUpstream(int calls) {
+        CountDownLatch inUpstream = new CountDownLatch(calls);
+        when(proteanAPIService.verifyPANWithRetry(any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            inUpstream.countDown();
+            release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            return activeResponse();
+        });
+        return inUpstream;
+    }
+
+    private static PANVerificationResponse activeResponse() {
+        PANVerificationResponse response = new PANVerificationResponse();
+        response.setStatus(PANStatus.ACTIVE);
+        response.setAadhaarLinked(true);
+        response.setRetryCount(0);
+        return response;
+    }
+
+    // Startup work (e.g. the first recovery sweep) may briefly hold a connection
+    private void awaitIdlePool() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (pool.getHikariPoolMXBean().getActiveConnections() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static PANVerificationRequest request(String pan) {
+        PANVerificationRequest request = new PANVerificationRequest();
+        request.setPan(pan);
+        request.setName("Test User");
+        return request;
+    }
+}
@@ -0,0 +1,171 @@
+package com.chumani.production.panverification.service;
+
+import com.chumani.production.panverification.dto.PANVerificationResponse;
+import com.chumani.production.panverification.enums.PANStatus;
+import com.chumani.production.panverification.util.Deadline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Concurrent verifications of one PAN against a counting upstream call
+ */
+@SpringJUnitConfig
+class UpstreamCallCoalescerTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Configuration
+    @Import({UpstreamCallCoalescer.class, VerificationResultCache.class, VerificationMetrics.class})
+    static class Config {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        // Converts the Duration defaults of the @Value fields, as in the application
+        @Bean
+        ConversionService conversionService() {
+            return ApplicationConversionService.getSharedInstance();
+        }
+    }
+
+    @Autowired
+    private UpstreamCallCoalescer coalescer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void concurrentCallersForOnePanMakeOneUpstreamCall() throws Exception {
+        int callers = 32;
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        double savedBefore = meterRegistry.counter("pan.upstream.coalescer.saved").count();
+        double callsBefore = meterRegistry.counter("pan.upstream.coalescer.calls").count();
+        PANVerificationResponse answer = new PANVerificationResponse();
+        answer.setStatus(PANStatus.ACTIVE);
+
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(callers, task -> {
+            Thread thread = new Thread(task);
+            threads.add(thread);
+            return thread;
+        });
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<PANVerificationResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return coalescer.execute("AAAPA1234A", "Test User", Deadline.none(), () -> {
+                        upstreamCalls.incrementAndGet();
+                        // Answer only once every other caller has joined this call
+                        awaitJoined(threads, callers - 1);
+                        return answer;
+                    });
+                }));
+            }
+            start.countDown();
+
+            for (Future<PANVerificationResponse> response : responses) {
+                assertSame(answer, response.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(callsBefore + 1, meterRegistry.counter("pan.upstream.coalescer.calls").count());
+        assertEquals(savedBefore + callers - 1, meterRegistry.counter("pan.upstream.coalescer.saved").count());
+    }
+
+    @Test
+    void callersForDifferentPansDoNotShareCalls() {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        double callsBefore = meterRegistry.counter("pan.upstream.coalescer.calls").count();
+
+        for (String pan : List.of("AAAPA0001A", "AAAPA0002A", "AAAPA0003A")) {
+            coalescer.execute(pan, "Test User", Deadline.none(), () -> {
+                upstreamCalls.incrementAndGet();
+                return new PANVerificationResponse();
+            });
+        }
+
+        assertEquals(3, upstreamCalls.get());
+        assertEquals(callsBefore + 3, meterRegistry.counter("pan.upstream.coalescer.calls").count());
+    }
+
+    @Test
+    void joinerRetryingAfterSharedDeadlineIsNotCountedAsSaved() throws Exception {
+        String pan = "AAAPA0004A";
+        double savedBefore = meterRegistry.counter("pan.upstream.coalescer.saved").count();
+        double callsBefore = meterRegistry.counter("pan.upstream.coalescer.calls").count();
+        PANVerificationResponse answer = new PANVerificationResponse();
+        answer.setStatus(PANStatus.ACTIVE);
+
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(2, task -> {
+            Thread thread = new Thread(task);
+            threads.add(thread);
+            return thread;
+        });
+        try {
+            CountDownLatch leading = new CountDownLatch(1);
+            // The leader runs out of its own (short) deadline once the joiner is waiting on it
+            Future<PANVerificationResponse> leader = executor.submit(() -> coalescer.execute(pan, "Test User",
+                Deadline.after(System.nanoTime(), Duration.ofSeconds(TIMEOUT_SECONDS)), () -> {
+                    leading.countDown();
+                    awaitJoined(threads, 1);
+                    return ProteanAPIService.deadlineExceededResponse(0);
+                }));
+            leading.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            Future<PANVerificationResponse> joiner = executor.submit(() ->
+                coalescer.execute(pan, "Test User", Deadline.none(), () -> answer));
+
+            assertEquals(ProteanAPIService.DEADLINE_EXCEEDED, leader.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getErrorCode());
+            assertSame(answer, joiner.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(savedBefore, meterRegistry.counter("pan.upstream.coalescer.saved").count());
+        assertEquals(callsBefore + 2, meterRegistry.counter("pan.upstream.coalescer.calls").count());
+    }
+
+    // Wait until this many of the threads are parked waiting for an in-flight call
+    private static void awaitJoined(List<Thread> threads, int joined) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (System.nanoTime() < deadline && threads.stream().filter(UpstreamCallCoalescerTest::isJoined).count() < joined) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static boolean isJoined(Thread thread) {
+        Thread.State state = thread.getState();
+        return (state == Thread.State.WAITING || state == Thread.State.TIMED_WAITING)
+            && Arrays.stream(thread.getStackTrace()).anyMatch(frame ->
+                frame.getClassName().equals(UpstreamCallCoalescer.class.getName()) && frame.getMethodName().equals("await"));
+    }
+}
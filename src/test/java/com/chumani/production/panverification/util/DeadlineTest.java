@@ -0,0 +1,82 @@
+package com.chumani.production.panverification.util;
+
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cancellation actions registered, deregistered and run against a deadline
+ */
+class DeadlineTest {
+
+    @Test
+    void cancelRunsRegisteredActionsOnce() {
+        Deadline deadline = Deadline.after(System.nanoTime(), Duration.ofMinutes(1));
+        AtomicInteger runs = new AtomicInteger();
+        deadline.onCancel(runs::incrementAndGet);
+        deadline.onCancel(runs::incrementAndGet);
+
+        deadline.cancel();
+        deadline.cancel();
+
+        assertEquals(2, runs.get());
+        assertTrue(deadline.isExpired());
+    }
+
+    @Test
+    void deregisteredActionsDoNotRun() {
+        Deadline deadline = Deadline.after(System.nanoTime(), Duration.ofMinutes(1));
+        AtomicInteger runs = new AtomicInteger();
+        // One registration per attempt, each dropped as its attempt completes
+        for (int attempt = 0; attempt < 1000; attempt++) {
+            deadline.onCancel(runs::incrementAndGet).run();
+        }
+        Runnable lastAttempt = deadline.onCancel(runs::incrementAndGet);
+
+        deadline.cancel();
+        lastAttempt.run();
+
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void actionRegisteredAfterCancelRunsAtOnce() {
+        Deadline deadline = Deadline.after(System.nanoTime(), Duration.ofMinutes(1));
+        deadline.cancel();
+        AtomicInteger runs = new AtomicInteger();
+
+        deadline.onCancel(runs::incrementAndGet);
+
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void failingActionDoesNotStopTheOthers() {
+        Deadline deadline = Deadline.after(System.nanoTime(), Duration.ofMinutes(1));
+        AtomicInteger runs = new AtomicInteger();
+        deadline.onCancel(() -> {
+            throw new IllegalStateException("abort failed");
+        });
+        deadline.onCancel(runs::incrementAndGet);
+
+        deadline.cancel();
+
+        assertEquals(1, runs.get());
+        assertTrue(deadline.isCancelled());
+    }
+
+    @Test
+    void noneIgnoresCancel() {
+        AtomicInteger runs = new AtomicInteger();
+        Deadline.none().onCancel(runs::incrementAndGet);
+
+        Deadline.none().cancel();
+
+        assertEquals(0, runs.get());
+        assertFalse(Deadline.none().isExpired());
+    }
+}
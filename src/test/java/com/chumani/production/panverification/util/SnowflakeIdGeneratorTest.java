@@ -0,0 +1,99 @@
+package com.chumani.production.panverification.util;
+
+import org.junit.jupiter.api.Test;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ids drawn concurrently from one generator, many times the per-millisecond sequence
+ */
+class SnowflakeIdGeneratorTest {
+
+    private static final long TIMEOUT_SECONDS = 30;
+
+    @Test
+    void concurrentIdsAreUniqueAndIncreasingPerThread() throws Exception {
+        int threads = 8;
+        int idsPerThread = 200_000;
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(42);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<long[]> drawn;
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<long[]>> futures = IntStream.range(0, threads)
+                .mapToObj(thread -> executor.submit(() -> {
+                    start.await();
+                    long[] ids = new long[idsPerThread];
+                    for (int i = 0; i < idsPerThread; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                }))
+                .toList();
+            start.countDown();
+            drawn = futures.stream().map(future -> {
+                try {
+                    return future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }).toList();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Set<Long> unique = new HashSet<>(threads * idsPerThread * 2);
+        for (long[] ids : drawn) {
+            for (int i = 0; i < ids.length; i++) {
+                assertTrue(unique.add(ids[i]), "duplicate id " + ids[i]);
+                if (i > 0) {
+                    assertTrue(ids[i] > ids[i - 1], "id went backwards on one thread");
+                }
+                assertEquals(42, (ids[i] >>> SnowflakeIdGenerator.SEQUENCE_BITS) & SnowflakeIdGenerator.MAX_NODE_ID);
+            }
+        }
+        assertEquals(threads * idsPerThread, unique.size());
+    }
+
+    @Test
+    void nodesNeverIssueTheSameId() {
+        SnowflakeIdGenerator first = new SnowflakeIdGenerator(1);
+        SnowflakeIdGenerator second = new SnowflakeIdGenerator(2);
+        Set<Long> unique = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(unique.add(first.nextId()));
+            assertTrue(unique.add(second.nextId()));
+        }
+    }
+
+    @Test
+    void encodedIdsSortLikeTheIds() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7);
+        String previous = "";
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId();
+            String encoded = SnowflakeIdGenerator.encode(id);
+            assertTrue(encoded.compareTo(previous) > 0);
+            assertEquals(id, SnowflakeIdGenerator.decode(encoded, 0));
+            previous = encoded;
+        }
+    }
+
+    @Test
+    void rejectsNodeIdsOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1));
+    }
+}
@@ -0,0 +1,84 @@
+package com.chumani.production.panverification.web;
+
+import com.chumani.production.panverification.dto.PANVerificationResponse;
+import com.chumani.production.panverification.enums.PANStatus;
+import com.chumani.production.panverification.service.ProteanAPIService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Server-Timing on API responses over a real connection, including errors Tomcat renders
+ * through its error dispatch
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class TraceContextFilterTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @MockBean
+    private ProteanAPIService proteanAPIService;
+
+    @Test
+    void verificationCarriesStageBreakdown() {
+        PANVerificationResponse active = new PANVerificationResponse();
+        active.setStatus(PANStatus.ACTIVE);
+        active.setRetryCount(0);
+        when(proteanAPIService.verifyPANWithRetry(any(), any(), any(), any(), any())).thenReturn(active);
+
+        ResponseEntity<String> response = verify("{\"pan\":\"AAHPA0001A\",\"name\":\"Test User\"}", new HttpHeaders());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String serverTiming = response.getHeaders().getFirst(TraceContextFilter.SERVER_TIMING_HEADER);
+        assertNotNull(serverTiming);
+        assertTrue(serverTiming.contains("upstream;dur="), serverTiming);
+        assertTrue(serverTiming.contains("total;dur="), serverTiming);
+    }
+
+    @Test
+    void rejectedHeaderCarriesServerTiming() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Request-Timeout", "-5");
+
+        ResponseEntity<String> response = verify("{\"pan\":\"AAHPA0002A\",\"name\":\"Test User\"}", headers);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertServerTimingAndTraceId(response);
+    }
+
+    @Test
+    void validationFailureCarriesServerTiming() {
+        ResponseEntity<String> response = verify("{\"pan\":\"not-a-pan\",\"name\":\"\"}", new HttpHeaders());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertServerTimingAndTraceId(response);
+    }
+
+    private ResponseEntity<String> verify(String body, HttpHeaders headers) {
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return restTemplate.postForEntity("/api/pan/verify", new HttpEntity<>(body, headers), String.class);
+    }
+
+    private static void assertServerTimingAndTraceId(ResponseEntity<String> response) {
+        String serverTiming = response.getHeaders().getFirst(TraceContextFilter.SERVER_TIMING_HEADER);
+        assertNotNull(serverTiming);
+        assertTrue(serverTiming.contains("total;dur="), serverTiming);
+        assertNotNull(response.getHeaders().getFirst(TraceContextFilter.TRACE_ID_HEADER));
+    }
+}